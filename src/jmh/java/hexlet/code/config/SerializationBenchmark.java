@@ -0,0 +1,123 @@
+package hexlet.code.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.dto.TaskView;
+import hexlet.code.dto.UserResponseDTO;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import hexlet.code.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение ответов API из сущностей и их сериализация в JSON объектом {@link ObjectMapper}
+ * из {@link JacksonConfig}: {@link TaskView#from(Task)} (ответ на создание и изменение задачи),
+ * {@link UserService#convertToResponseDTO} и статус задачи.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+
+    private static final int LABELS_PER_TASK = 3;
+
+    private ObjectMapper objectMapper;
+    private UserService userService;
+    private Task task;
+    private TaskStatus taskStatus;
+    private User user;
+
+    /**
+     * Создаёт сущности с заполненными полями.
+     */
+    @Setup
+    public void setUp() {
+        objectMapper = new JacksonConfig().objectMapper();
+        userService = new UserService();
+
+        user = new User("user@example.com", "Ivan", "Petrov", "password");
+        user.setId(1L);
+        user.setCreatedAt(Instant.now());
+
+        taskStatus = new TaskStatus("To Review", "to_review");
+
+        task = new Task();
+        task.setId(42L);
+        task.setIndex(7);
+        task.setCreatedAt(LocalDate.now());
+        task.setName("Prepare release notes");
+        task.setDescription("Collect merged changes and describe user-visible behaviour");
+        task.setTaskStatus(taskStatus);
+        task.setAssignee(user);
+        for (long id = 1; id <= LABELS_PER_TASK; id++) {
+            Label label = new Label("label-" + id);
+            label.setId(id);
+            task.getLabels().add(label);
+        }
+    }
+
+    /**
+     * Представление задачи из сущности.
+     *
+     * @return представление задачи
+     */
+    @Benchmark
+    public TaskView taskViewFrom() {
+        return TaskView.from(task);
+    }
+
+    /**
+     * Представление задачи из сущности и его сериализация.
+     *
+     * @return JSON задачи
+     * @throws JsonProcessingException при ошибке сериализации
+     */
+    @Benchmark
+    public byte[] taskViewFromAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(TaskView.from(task));
+    }
+
+    /**
+     * DTO пользователя из сущности.
+     *
+     * @return DTO пользователя
+     */
+    @Benchmark
+    public UserResponseDTO convertUser() {
+        return userService.convertToResponseDTO(user);
+    }
+
+    /**
+     * DTO пользователя из сущности и его сериализация (Instant в формате ISO-8601).
+     *
+     * @return JSON пользователя
+     * @throws JsonProcessingException при ошибке сериализации
+     */
+    @Benchmark
+    public byte[] convertAndSerializeUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userService.convertToResponseDTO(user));
+    }
+
+    /**
+     * Сериализация статуса задачи.
+     *
+     * @return JSON статуса
+     * @throws JsonProcessingException при ошибке сериализации
+     */
+    @Benchmark
+    public byte[] serializeTaskStatus() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(taskStatus);
+    }
+}
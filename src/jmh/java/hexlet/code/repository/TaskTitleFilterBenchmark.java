@@ -0,0 +1,96 @@
+package hexlet.code.repository;
+
+import hexlet.code.AppApplication;
+import hexlet.code.dto.TaskParamsDTO;
+import hexlet.code.service.TaskNameIndexBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильтр titleCont запросом к БД: {@link TaskRepositoryCustom#countTasksByFilters} строит Criteria-запрос
+ * с {@code lower(name) LIKE '%...%'}, который просматривает все строки таблицы задач. Названия те же,
+ * что в {@link TaskNameIndexBenchmark}, поэтому результаты сравнимы с поиском по триграммному индексу.
+ * Приложение запускается с H2 в памяти; задачи вставляются через JDBC, минуя индексы в памяти процесса.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskTitleFilterBenchmark {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Param({"100000", "1000000"})
+    private int tasks;
+
+    @Param({"deploy", "release notes"})
+    private String fragment;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private TaskParamsDTO params;
+
+    /**
+     * Запускает приложение и заполняет таблицу задач.
+     */
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:title-filter-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "server.port=0")
+                .run();
+        taskRepository = context.getBean(TaskRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long taskStatusId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM task_statuses", Long.class);
+        Date createdAt = Date.valueOf(LocalDate.now());
+        String[] names = TaskNameIndexBenchmark.randomNames(tasks);
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < tasks; i++) {
+            rows.add(new Object[] {i + 1L, names[i], createdAt, taskStatusId});
+            if (rows.size() == INSERT_BATCH_SIZE || i == tasks - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO tasks (id, name, created_at, task_status_id) VALUES (?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+
+        params = new TaskParamsDTO();
+        params.setTitleCont(fragment);
+    }
+
+    /**
+     * Останавливает приложение.
+     */
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Подсчёт задач с подстрокой в названии запросом {@code LIKE} к БД.
+     *
+     * @return количество найденных задач
+     */
+    @Benchmark
+    public long criteriaLike() {
+        return taskRepository.countTasksByFilters(params);
+    }
+}
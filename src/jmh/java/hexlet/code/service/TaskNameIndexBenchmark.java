@@ -0,0 +1,101 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильтр titleCont: поиск подстроки через {@link TaskNameTrigramIndex} против полного перебора
+ * названий в памяти. Тот же фильтр запросом {@code LIKE '%...%'} к БД измеряет
+ * {@link hexlet.code.repository.TaskTitleFilterBenchmark} на тех же названиях.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskNameIndexBenchmark {
+
+    private static final String[] WORDS = {"fix", "login", "page", "deploy", "backend", "frontend", "review",
+        "release", "notes", "update", "search", "index", "report", "export", "label", "status"};
+    private static final int WORDS_PER_NAME = 4;
+
+    @Param({"100000", "1000000"})
+    private int tasks;
+
+    @Param({"deploy", "release notes"})
+    private String fragment;
+
+    private TaskNameTrigramIndex index;
+    private String[] names;
+
+    /**
+     * Создаёт названия задач из случайных слов и индексирует их.
+     */
+    @Setup
+    public void setUp() {
+        names = randomNames(tasks);
+        List<TaskDocument> documents = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            documents.add(new TaskDocument(i + 1L, names[i], null, null, null, List.of()));
+        }
+        index = new TaskNameTrigramIndex();
+        index.update(List.of(), documents);
+    }
+
+    /**
+     * Создаёт названия задач из случайных слов. Последовательность одинакова при каждом запуске.
+     *
+     * @param count количество названий
+     * @return названия задач
+     */
+    public static String[] randomNames(int count) {
+        Random random = new Random(42);
+        String[] result = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int j = 0; j < WORDS_PER_NAME; j++) {
+                name.append(j == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            result[i] = name.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Поиск по триграммному индексу.
+     *
+     * @return количество найденных задач
+     */
+    @Benchmark
+    public int trigramIndex() {
+        return index.findContaining(fragment).getCardinality();
+    }
+
+    /**
+     * Полный перебор названий без учёта регистра.
+     *
+     * @return количество найденных задач
+     */
+    @Benchmark
+    public int linearScan() {
+        String needle = fragment.toLowerCase(Locale.ROOT);
+        int found = 0;
+        for (String name : names) {
+            if (name.toLowerCase(Locale.ROOT).contains(needle)) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
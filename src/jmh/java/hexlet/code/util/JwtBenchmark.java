@@ -0,0 +1,107 @@
+package hexlet.code.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка JWT: {@link JWTUtils#generateToken}, {@link JWTUtils#extractUsername}
+ * и {@link JWTUtils#validateToken} для токена из кэша проверенных токенов и для токенов,
+ * которых в кэше нет (проверка подписи HS512 и разбор JSON).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtBenchmark {
+
+    // Больше размера кэша проверенных токенов: при обходе по кругу каждый токен вытеснен из кэша
+    private static final int UNCACHED_TOKENS = 20_000;
+    private static final String EMAIL = "user@example.com";
+
+    private JWTUtils jwtUtils;
+    private String token;
+    private UserDetails userDetails;
+    private String[] uncachedTokens;
+    private UserDetails[] uncachedUsers;
+    private int next;
+
+    /**
+     * Выпускает токены для проверки.
+     */
+    @Setup
+    public void setUp() {
+        jwtUtils = new JWTUtils();
+        token = jwtUtils.generateToken(EMAIL, 1L, List.of("ROLE_USER"));
+        userDetails = User.withUsername(EMAIL).password("").roles("USER").build();
+        uncachedTokens = new String[UNCACHED_TOKENS];
+        uncachedUsers = new UserDetails[UNCACHED_TOKENS];
+        for (int i = 0; i < UNCACHED_TOKENS; i++) {
+            String email = "user" + i + "@example.com";
+            uncachedTokens[i] = jwtUtils.generateToken(email);
+            uncachedUsers[i] = User.withUsername(email).password("").roles("USER").build();
+        }
+    }
+
+    /**
+     * Выпуск токена с id и ролями пользователя.
+     *
+     * @return токен
+     */
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(EMAIL, 1L, List.of("ROLE_USER"));
+    }
+
+    /**
+     * Имя пользователя из уже проверенного токена.
+     *
+     * @return имя пользователя
+     */
+    @Benchmark
+    public String extractUsernameCached() {
+        return jwtUtils.extractUsername(token);
+    }
+
+    /**
+     * Проверка уже проверенного токена.
+     *
+     * @return результат проверки
+     */
+    @Benchmark
+    public boolean validateTokenCached() {
+        return jwtUtils.validateToken(token, userDetails);
+    }
+
+    /**
+     * Имя пользователя из токена, которого нет в кэше.
+     *
+     * @return имя пользователя
+     */
+    @Benchmark
+    public String extractUsernameUncached() {
+        String uncached = uncachedTokens[next];
+        next = (next + 1) % UNCACHED_TOKENS;
+        return jwtUtils.extractUsername(uncached);
+    }
+
+    /**
+     * Проверка токена, которого нет в кэше.
+     *
+     * @return результат проверки
+     */
+    @Benchmark
+    public boolean validateTokenUncached() {
+        int current = next;
+        next = (next + 1) % UNCACHED_TOKENS;
+        return jwtUtils.validateToken(uncachedTokens[current], uncachedUsers[current]);
+    }
+}
@@ -0,0 +1,80 @@
+package hexlet.code.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Вид запроса в нагрузочном тесте: имя для отчёта, доля в смеси запросов и построение запроса.
+ *
+ * @param name    имя в отчёте и в файле гистограмм
+ * @param weight  доля в смеси запросов
+ * @param request строит запрос по данным теста и генератору случайных чисел
+ */
+record Endpoint(String name, int weight, BiFunction<SeedData, Random, HttpRequest> request) {
+
+    /**
+     * Смесь запросов по умолчанию: в основном чтение списков задач, как у опрашивающего SPA.
+     *
+     * @param api клиент API
+     * @return запросы с долями по умолчанию
+     */
+    static List<Endpoint> defaults(ApiClient api) {
+        return List.of(
+                new Endpoint("tasks.list", 30, (data, random) -> api.get("/api/tasks?limit=20", token(data, random))),
+                new Endpoint("tasks.filter", 15, (data, random) -> api.get("/api/tasks?limit=20&status="
+                        + pick(data.statuses(), random) + "&labelId=" + pick(data.labelIds(), random),
+                        token(data, random))),
+                new Endpoint("tasks.get", 15, (data, random) -> api.get("/api/tasks/"
+                        + pick(data.taskIds(), random), token(data, random))),
+                new Endpoint("tasks.search", 10, (data, random) -> api.get("/api/tasks/search?q="
+                        + SeedData.words(random, 2).replace(' ', '+'), token(data, random))),
+                new Endpoint("tasks.facets", 5, (data, random) -> api.get("/api/tasks/facets?status="
+                        + pick(data.statuses(), random), token(data, random))),
+                new Endpoint("tasks.create", 5, (data, random) -> api.post("/api/tasks", token(data, random),
+                        SeedData.task(random.nextInt(Integer.MAX_VALUE), data.userIds(), data.labelIds(),
+                                data.statuses(), random))),
+                new Endpoint("labels.list", 10, (data, random) -> api.get("/api/labels", token(data, random))),
+                new Endpoint("task_statuses.list", 5, (data, random) -> api.get("/api/task_statuses",
+                        token(data, random))),
+                new Endpoint("users.list", 5, (data, random) -> api.get("/api/users", token(data, random))));
+    }
+
+    /**
+     * Переопределяет доли запросов строкой вида {@code tasks.list=50,tasks.get=50};
+     * запросы, не указанные в строке, исключаются из смеси.
+     *
+     * @param endpoints запросы с долями по умолчанию
+     * @param mix       доли запросов или null
+     * @return запросы с новыми долями
+     */
+    static List<Endpoint> withMix(List<Endpoint> endpoints, String mix) {
+        if (mix == null || mix.isBlank()) {
+            return endpoints;
+        }
+        Map<String, Integer> weights = new HashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        List<Endpoint> selected = endpoints.stream()
+                .filter(endpoint -> weights.getOrDefault(endpoint.name(), 0) > 0)
+                .map(endpoint -> new Endpoint(endpoint.name(), weights.get(endpoint.name()), endpoint.request()))
+                .toList();
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("Mix '" + mix + "' selects no endpoints");
+        }
+        return selected;
+    }
+
+    private static String token(SeedData data, Random random) {
+        return pick(data.tokens(), random);
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
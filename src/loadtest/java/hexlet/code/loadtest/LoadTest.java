@@ -0,0 +1,179 @@
+package hexlet.code.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест запущенного приложения (например, {@code ./gradlew bootRun} с профилем dev и H2).
+ * <p>
+ * Тест создаёт через API метки, пользователей и задачи, получает JWT каждого пользователя и затем
+ * с постоянной частотой (открытая модель нагрузки) отправляет смесь запросов к {@code /api/*}.
+ * Задержка считается от запланированного, а не фактического момента отправки, поэтому очередь
+ * на стороне клиента при перегрузке сервера тоже входит в задержку (без coordinated omission).
+ * </p>
+ * <p>
+ * По каждому запросу выводятся пропускная способность и p50/p95/p99/p99.9, а гистограммы задержек
+ * в наносекундах пишутся в файл HdrHistogram ({@code .hlog}, тег - имя запроса).
+ * Запуск: {@code ./gradlew loadTest -Prate=500 -PdurationSeconds=60}.
+ * </p>
+ * <p>
+ * Параметры (системные свойства): {@code baseUrl}, {@code email}, {@code password} (администратор),
+ * {@code users}, {@code labels}, {@code tasks}, {@code rate} (запросов в секунду), {@code warmupSeconds},
+ * {@code durationSeconds}, {@code mix} (например {@code tasks.list=50,tasks.get=50}), {@code output}.
+ * </p>
+ */
+public final class LoadTest {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("baseUrl", "http://localhost:8080");
+        int rate = Integer.getInteger("rate", 200);
+        Duration warmup = Duration.ofSeconds(Long.getLong("warmupSeconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("durationSeconds", 60));
+        File output = new File(System.getProperty("output", "build/reports/loadtest/latency.hlog"));
+        Random random = new Random(Long.getLong("seed", 42));
+
+        ApiClient api = new ApiClient(baseUrl);
+        String adminToken = api.login(System.getProperty("email", "hexlet@example.com"),
+                System.getProperty("password", "qwerty"));
+        System.out.println("Seeding data...");
+        SeedData data = SeedData.create(api, adminToken, Integer.getInteger("users", 50),
+                Integer.getInteger("labels", 20), Integer.getInteger("tasks", 5000), random);
+        System.out.printf("Seeded %d users, %d labels, %d tasks%n",
+                data.userIds().size(), data.labelIds().size(), data.taskIds().size());
+
+        List<Endpoint> endpoints = Endpoint.withMix(Endpoint.defaults(api), System.getProperty("mix"));
+
+        System.out.printf("Warming up for %d s at %d req/s...%n", warmup.toSeconds(), rate);
+        run(api, data, endpoints, rate, warmup, random);
+
+        System.out.printf("Measuring for %d s at %d req/s...%n", duration.toSeconds(), rate);
+        long startedAt = System.currentTimeMillis();
+        Map<String, Stats> stats = run(api, data, endpoints, rate, duration, random);
+        long finishedAt = System.currentTimeMillis();
+
+        report(stats, duration, System.out);
+        write(stats, startedAt, finishedAt, output);
+        System.out.println("Latency histograms written to " + output.getAbsolutePath());
+    }
+
+    // Запросы отправляются по расписанию: i-й запрос - через i * interval от начала, независимо от ответов
+    private static Map<String, Stats> run(ApiClient api, SeedData data, List<Endpoint> endpoints, int rate,
+                                          Duration duration, Random random) {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        endpoints.forEach(endpoint -> stats.put(endpoint.name(), new Stats()));
+        int[] cumulativeWeights = new int[endpoints.size()];
+        int totalWeight = 0;
+        for (int i = 0; i < endpoints.size(); i++) {
+            totalWeight += endpoints.get(i).weight();
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        long interval = NANOS_PER_SECOND / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; start + i * interval < end; i++) {
+                long scheduledAt = start + i * interval;
+                long delay = scheduledAt - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                Endpoint endpoint = endpoints.get(pick(cumulativeWeights, random.nextInt(totalWeight)));
+                HttpRequest request = endpoint.request().apply(data, random);
+                Stats endpointStats = stats.get(endpoint.name());
+                requests.submit(() -> execute(api, request, scheduledAt, endpointStats));
+            }
+        }
+        return stats;
+    }
+
+    private static int pick(int[] cumulativeWeights, int value) {
+        int i = 0;
+        while (value >= cumulativeWeights[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void execute(ApiClient api, HttpRequest request, long scheduledAt, Stats stats) {
+        try {
+            HttpResponse<Void> response = api.execute(request);
+            if (response.statusCode() >= 400) {
+                stats.errors.increment();
+            }
+        } catch (IOException e) {
+            stats.errors.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        stats.latency.recordValue(System.nanoTime() - scheduledAt);
+    }
+
+    private static void report(Map<String, Stats> stats, Duration duration, PrintStream out) {
+        out.printf("%-20s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.forEach((name, endpointStats) -> {
+            Histogram latency = endpointStats.latency;
+            out.printf(Locale.ROOT, "%-20s %9d %7d %9.1f", name, latency.getTotalCount(), endpointStats.errors.sum(),
+                    latency.getTotalCount() / (double) duration.toSeconds());
+            for (double percentile : PERCENTILES) {
+                out.printf(Locale.ROOT, " %9.2f", latency.getValueAtPercentile(percentile) / NANOS_PER_MILLI);
+            }
+            out.printf(Locale.ROOT, " %9.2f%n", latency.getMaxValue() / NANOS_PER_MILLI);
+        });
+    }
+
+    private static void write(Map<String, Stats> stats, long startedAt, long finishedAt, File output)
+            throws IOException {
+        File directory = output.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        try (PrintStream stream = new PrintStream(output)) {
+            HistogramLogWriter writer = new HistogramLogWriter(stream);
+            writer.setBaseTime(startedAt);
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(startedAt);
+            writer.outputLegend();
+            stats.forEach((name, endpointStats) -> {
+                Histogram latency = endpointStats.latency;
+                latency.setTag(name);
+                latency.setStartTimeStamp(startedAt);
+                latency.setEndTimeStamp(finishedAt);
+                writer.outputIntervalHistogram(latency);
+            });
+        }
+    }
+
+    // Гистограмма задержек в наносекундах (с автоматическим расширением диапазона) и число ошибок
+    private static final class Stats {
+        private final Histogram latency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+    }
+}
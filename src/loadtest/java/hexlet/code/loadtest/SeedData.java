@@ -0,0 +1,91 @@
+package hexlet.code.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Данные, созданные для нагрузочного теста: токены пользователей и ID меток и задач.
+ * Имена и email содержат идентификатор запуска, поэтому тест можно повторять на одном экземпляре.
+ *
+ * @param tokens   JWT созданных пользователей
+ * @param userIds  ID созданных пользователей
+ * @param labelIds ID созданных меток
+ * @param statuses slug статусов задач
+ * @param taskIds  ID созданных задач
+ */
+record SeedData(List<String> tokens, List<Long> userIds, List<Long> labelIds, List<String> statuses,
+                List<Long> taskIds) {
+
+    static final String[] WORDS = {"fix", "login", "page", "deploy", "backend", "frontend", "review",
+        "release", "notes", "update", "search", "index", "report", "export", "label", "status"};
+
+    private static final String PASSWORD = "password";
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_LABELS_PER_TASK = 3;
+
+    static SeedData create(ApiClient api, String adminToken, int users, int labels, int tasks, Random random)
+            throws IOException, InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+        List<Long> labelIds = new ArrayList<>();
+        for (int i = 0; i < labels; i++) {
+            labelIds.add(api.postJson("/api/labels", adminToken, Map.of("name", "load-" + runId + "-" + i))
+                    .get("id").asLong());
+        }
+
+        List<Long> userIds = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            String email = "load-" + runId + "-" + i + "@example.com";
+            userIds.add(api.postJson("/api/users", adminToken, Map.of("email", email, "password", PASSWORD,
+                    "firstName", "Load", "lastName", "User " + i)).get("id").asLong());
+            tokens.add(api.login(email, PASSWORD));
+        }
+
+        List<String> statuses = new ArrayList<>();
+        api.getJson("/api/task_statuses", adminToken).forEach(status -> statuses.add(status.get("slug").asText()));
+
+        List<Long> taskIds = new ArrayList<>();
+        for (int from = 0; from < tasks; from += BATCH_SIZE) {
+            List<Map<String, Object>> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(tasks, from + BATCH_SIZE); i++) {
+                batch.add(task(i, userIds, labelIds, statuses, random));
+            }
+            for (JsonNode created : api.postJson("/api/tasks/batch", adminToken, batch)) {
+                taskIds.add(created.get("id").asLong());
+            }
+        }
+        return new SeedData(tokens, userIds, labelIds, statuses, taskIds);
+    }
+
+    static Map<String, Object> task(int number, List<Long> userIds, List<Long> labelIds, List<String> statuses,
+                                    Random random) {
+        Map<String, Object> task = new HashMap<>();
+        task.put("title", words(random, 3) + " " + number);
+        task.put("content", words(random, 12));
+        task.put("status", statuses.get(random.nextInt(statuses.size())));
+        if (!userIds.isEmpty()) {
+            task.put("assignee_id", userIds.get(random.nextInt(userIds.size())));
+        }
+        List<Long> taskLabelIds = new ArrayList<>();
+        for (int i = random.nextInt(MAX_LABELS_PER_TASK + 1); i > 0 && !labelIds.isEmpty(); i--) {
+            taskLabelIds.add(labelIds.get(random.nextInt(labelIds.size())));
+        }
+        task.put("taskLabelIds", taskLabelIds.stream().distinct().toList());
+        return task;
+    }
+
+    static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
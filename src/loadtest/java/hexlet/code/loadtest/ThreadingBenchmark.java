@@ -0,0 +1,96 @@
+package hexlet.code.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Замер пропускной способности приложения при разном числе одновременных клиентов.
+ * Каждый клиент в замкнутом цикле отправляет запрос и сразу после ответа - следующий.
+ * <p>
+ * Для сравнения потоков ОС и виртуальных потоков приложение запускается дважды - без профиля
+ * {@code virtual} и с ним, - и замер повторяется:
+ * {@code ./gradlew threadingBenchmark -Plabel=virtual -Pconcurrency=500,1000,2000,5000}.
+ * </p>
+ * <p>
+ * Параметры (системные свойства): {@code baseUrl}, {@code path}, {@code email}, {@code password},
+ * {@code concurrency} (через запятую), {@code warmupSeconds}, {@code durationSeconds}, {@code label}.
+ * </p>
+ */
+public final class ThreadingBenchmark {
+
+    private ThreadingBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("baseUrl", "http://localhost:8080");
+        String path = System.getProperty("path", "/api/tasks?limit=20");
+        String label = System.getProperty("label", "default");
+        int[] levels = Arrays.stream(System.getProperty("concurrency", "500,1000,2000,5000").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        Duration warmup = Duration.ofSeconds(Long.getLong("warmupSeconds", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("durationSeconds", 30));
+
+        ApiClient api = new ApiClient(baseUrl);
+        String token = api.login(System.getProperty("email", "hexlet@example.com"),
+                System.getProperty("password", "qwerty"));
+        HttpRequest request = api.get(path, token);
+
+        System.out.printf("%-10s %12s %10s %8s %12s %12s%n",
+                "label", "concurrency", "requests", "errors", "req/s", "mean ms");
+        for (int level : levels) {
+            run(api, request, level, warmup);
+            Result result = run(api, request, level, duration);
+            System.out.printf(Locale.ROOT, "%-10s %12d %10d %8d %12.1f %12.2f%n",
+                    label, level, result.requests(), result.errors(),
+                    result.requests() / (double) duration.toSeconds(), result.meanMillis());
+        }
+    }
+
+    // Клиенты - виртуальные потоки, поэтому генератор нагрузки сам не упирается в число потоков ОС
+    private static Result run(ApiClient api, HttpRequest request, int concurrency, Duration duration) {
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder totalNanos = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Runnable> loops = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                loops.add(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long startedAt = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = api.execute(request);
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        requests.increment();
+                        totalNanos.add(System.nanoTime() - startedAt);
+                    }
+                });
+            }
+            loops.forEach(clients::submit);
+        }
+        long count = requests.sum();
+        return new Result(count, errors.sum(), count == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / count);
+    }
+
+    private record Result(long requests, long errors, double meanMillis) {
+    }
+}
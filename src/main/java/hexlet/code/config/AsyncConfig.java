@@ -0,0 +1,28 @@
+package hexlet.code.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+/**
+ * Настройки выполнения методов {@code @Async}. Исполнитель создаёт Spring Boot: с профилем
+ * {@code virtual} это виртуальные потоки, иначе - пул потоков ОС.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * Передаёт контекст безопасности вызывающего потока в задачу {@code @Async}: SecurityContextHolder
+     * хранит его в ThreadLocal, и без декоратора задача выполнялась бы без аутентификации.
+     * Spring Boot применяет декоратор к исполнителю задач приложения.
+     *
+     * @return декоратор задач
+     */
+    @Bean
+    public TaskDecorator securityContextTaskDecorator() {
+        return DelegatingSecurityContextRunnable::new;
+    }
+}
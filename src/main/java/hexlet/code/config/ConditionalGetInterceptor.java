@@ -0,0 +1,61 @@
+package hexlet.code.config;
+
+import hexlet.code.service.CollectionVersions;
+import hexlet.code.service.VersionedCollection;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Условные GET-запросы к коллекции API по её версии из {@link CollectionVersions}.
+ * Ответ получает строгий ETag текущей версии; если клиент прислал его же в If-None-Match,
+ * запрос завершается ответом 304 до вызова контроллера и обращения к БД.
+ * <p>
+ * Версия читается до формирования ответа, поэтому при одновременной записи ответ может содержать
+ * данные новее своего ETag, но не старее: следующий запрос клиента получит полный ответ.
+ * Чтобы ответ не оказался старее ETag при чтении с реплики, коллекция запроса сохраняется в атрибуте
+ * {@link #VERSIONED_COLLECTION_ATTRIBUTE}: {@link ReplicaRoutingDataSource} направляет такой запрос
+ * на основной сервер, пока реплики могли не получить последнее изменение коллекции.
+ * </p>
+ * <p>
+ * Если ETag отключены ({@code app.conditional-get.enabled=false}), перехватчик только сохраняет коллекцию
+ * запроса для маршрутизации чтений и не добавляет заголовков.
+ * </p>
+ */
+public final class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    /**
+     * Атрибут запроса с коллекцией ({@link VersionedCollection}), по версии которой сформирован ETag ответа.
+     */
+    public static final String VERSIONED_COLLECTION_ATTRIBUTE = ConditionalGetInterceptor.class.getName()
+            + ".collection";
+
+    private final CollectionVersions collectionVersions;
+    private final VersionedCollection collection;
+    private final boolean enabled;
+
+    public ConditionalGetInterceptor(CollectionVersions collectionVersions, VersionedCollection collection,
+                                     boolean enabled) {
+        this.collectionVersions = collectionVersions;
+        this.collection = collection;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        request.setAttribute(VERSIONED_COLLECTION_ATTRIBUTE, collection);
+        if (!enabled) {
+            return true;
+        }
+        // no-cache: браузер хранит ответ, но перепроверяет его по ETag при каждом запросе
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return !new ServletWebRequest(request, response).checkNotModified(collectionVersions.getETag(collection));
+    }
+}
@@ -0,0 +1,82 @@
+package hexlet.code.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Загружает найденный статический ресурс в память целиком. Вместе с {@code CachingResourceResolver}
+ * (включается через {@code resourceChain(true)}) ресурс читается из jar и распаковывается один раз,
+ * а дальше отдаётся из массива байтов. Заголовки сжатой копии (Content-Encoding, Vary) сохраняются.
+ * Ресурсы больше {@link #MAX_SIZE} байт отдаются как есть.
+ */
+public final class InMemoryResourceResolver extends AbstractResourceResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryResourceResolver.class);
+    private static final long MAX_SIZE = 4 * 1024 * 1024;
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null) {
+            return null;
+        }
+        try {
+            if (resource.contentLength() > MAX_SIZE) {
+                return resource;
+            }
+            return new InMemoryResource(resource);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to load {} into memory", resource, e);
+            return resource;
+        }
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    // Содержимое, имя и дата изменения исходного ресурса; имя нужно для определения Content-Type
+    private static final class InMemoryResource extends ByteArrayResource implements HttpResource {
+
+        private final String filename;
+        private final long lastModified;
+        private final HttpHeaders responseHeaders;
+
+        InMemoryResource(Resource original) throws IOException {
+            super(original.getContentAsByteArray(), original.getDescription());
+            this.filename = original.getFilename();
+            this.lastModified = original.lastModified();
+            this.responseHeaders = original instanceof HttpResource httpResource
+                    ? HttpHeaders.readOnlyHttpHeaders(httpResource.getResponseHeaders())
+                    : HttpHeaders.EMPTY;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            return responseHeaders;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package hexlet.code.config;
 
 import hexlet.code.util.JWTUtils;
-import hexlet.code.service.UserDetailsServiceImpl;
+import hexlet.code.util.JwtPrincipal;
+import hexlet.code.util.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import hexlet.code.service.PrincipalCache;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,11 +19,13 @@ import java.io.IOException;
 public final class JWTAuthenticationFilter extends OncePerRequestFilter {
 
     private final JWTUtils jwtUtils;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final PrincipalCache principalCache;
+    private final boolean statelessClaims;
 
-    public JWTAuthenticationFilter(JWTUtils jwtUtils, UserDetailsServiceImpl userDetailsService) {
+    public JWTAuthenticationFilter(JWTUtils jwtUtils, PrincipalCache principalCache, boolean statelessClaims) {
         this.jwtUtils = jwtUtils;
-        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.statelessClaims = statelessClaims;
     }
 
     @Override
@@ -27,21 +33,41 @@ public final class JWTAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String jwt = authHeader.substring(7);
-            String username = jwtUtils.extractUsername(jwt);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                var userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (jwtUtils.validateToken(jwt, userDetails)) {
-                    var authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            VerifiedToken token = verify(authHeader.substring(7));
+
+            if (token != null && token.subject() != null) {
+                // Подпись и срок действия уже проверены в verify(), повторный разбор токена не нужен
+                var authentication = statelessClaims && token.hasUserClaims()
+                        ? fromClaims(token)
+                        : fromPrincipalCache(token);
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }
         chain.doFilter(request, response);
     }
+
+    private UsernamePasswordAuthenticationToken fromClaims(VerifiedToken token) {
+        var principal = new JwtPrincipal(token.userId(), token.subject());
+        var authorities = token.authorities().stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
+
+    private UsernamePasswordAuthenticationToken fromPrincipalCache(VerifiedToken token) {
+        var userDetails = principalCache.getUser(token.subject());
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private VerifiedToken verify(String jwt) {
+        try {
+            return jwtUtils.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected JWT: " + e.getMessage());
+            return null;
+        }
+    }
 }
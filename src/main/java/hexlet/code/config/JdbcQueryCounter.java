@@ -0,0 +1,60 @@
+package hexlet.code.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Слушатель datasource-proxy: считает обращения к БД (выполнения запросов, пакет JDBC - одно обращение)
+ * в метрике {@code jdbc.queries} с тегом типа запроса. Обращения в рамках HTTP-запроса и транзакции
+ * считает {@link QueryBudgetGuard}.
+ */
+public final class JdbcQueryCounter implements QueryExecutionListener, MeterBinder {
+
+    // Источник данных создаётся раньше реестра метрик; до регистрации обращения не учитываются
+    private volatile Map<QueryType, Counter> counters;
+
+    /**
+     * Регистрирует счётчики {@code jdbc.queries} по типам запросов.
+     *
+     * @param registry реестр метрик
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<QueryType, Counter> typeCounters = new EnumMap<>(QueryType.class);
+        for (QueryType type : QueryType.values()) {
+            typeCounters.put(type, Counter.builder("jdbc.queries")
+                    .description("Statements executed against the database")
+                    .tag("type", type.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        counters = typeCounters;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // Учитываются только выполненные запросы
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Map<QueryType, Counter> typeCounters = counters;
+        if (typeCounters == null) {
+            return;
+        }
+        QueryType type = queryInfoList.isEmpty()
+                ? QueryType.OTHER
+                : QueryUtils.getQueryType(queryInfoList.get(0).getQuery());
+        typeCounters.get(type).increment();
+    }
+}
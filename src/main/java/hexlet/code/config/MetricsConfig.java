@@ -0,0 +1,153 @@
+package hexlet.code.config;
+
+import hexlet.code.service.PrincipalCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+import javax.sql.DataSource;
+
+/**
+ * Метрики приложения для {@code /actuator/prometheus}. Задержка HTTP-запросов, пул соединений Hikari
+ * и статистика Hibernate публикуются автоконфигурацией Spring Boot (см. {@code management.*}
+ * в application.yml); здесь добавляются тег метода контроллера, счётчики обращений к БД с бюджетом
+ * на запрос и транзакцию, попадания в кэш пользователей и закрепления виртуальных потоков.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Счётчик обращений к БД, общий и по потокам.
+     *
+     * @return счётчик обращений к БД
+     */
+    @Bean
+    public JdbcQueryCounter jdbcQueryCounter() {
+        return new JdbcQueryCounter();
+    }
+
+    /**
+     * Бюджет обращений к БД на HTTP-запрос и транзакцию. Регистрируется и как слушатель
+     * транзакций: Spring Boot подключает такие бины к менеджеру транзакций.
+     *
+     * @param requestBudget     допустимое количество обращений за HTTP-запрос
+     * @param transactionBudget допустимое количество обращений за транзакцию
+     * @param repeatThreshold   количество повторов одного запроса, начиная с которого пишется предупреждение N+1
+     * @param failOnExceed      true - транзакция, превысившая бюджет, откатывается вместо фиксации
+     * @return бюджет обращений к БД
+     */
+    @Bean
+    public QueryBudgetGuard queryBudgetGuard(@Value("${app.query-budget.per-request:30}") int requestBudget,
+                                             @Value("${app.query-budget.per-transaction:20}") int transactionBudget,
+                                             @Value("${app.query-budget.repeat-threshold:10}") int repeatThreshold,
+                                             @Value("${app.query-budget.fail-on-exceed:false}") boolean failOnExceed) {
+        return new QueryBudgetGuard(requestBudget, transactionBudget, repeatThreshold, failOnExceed);
+    }
+
+    /**
+     * Оборачивает источники данных в datasource-proxy, чтобы считать обращения к БД.
+     * Статический метод: постпроцессор создаётся раньше остальных бинов конфигурации.
+     *
+     * @param queryCounter счётчик обращений к БД
+     * @param queryBudget  бюджет обращений к БД
+     * @return постпроцессор источников данных
+     */
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor(
+            ObjectProvider<JdbcQueryCounter> queryCounter, ObjectProvider<QueryBudgetGuard> queryBudget) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(queryCounter.getObject())
+                        .listener(queryBudget.getObject())
+                        .build();
+            }
+        };
+    }
+
+    /**
+     * Количество обращений к БД за HTTP-запрос. Фильтр стоит первым, чтобы учесть и запросы
+     * из фильтров безопасности.
+     *
+     * @param queryBudget   бюджет обращений к БД
+     * @param meterRegistry реестр метрик
+     * @return регистрация фильтра
+     */
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(QueryBudgetGuard queryBudget,
+                                                                     MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryCountFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(queryBudget, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Тег {@code handler} с методом контроллера для {@code http.server.requests}.
+     *
+     * @return соглашение об именовании наблюдений HTTP-запросов
+     */
+    @Bean
+    public ServerRequestObservationConvention handlerObservationConvention() {
+        return new HandlerObservationConvention();
+    }
+
+    /**
+     * Попадания и промахи кэша аутентифицированных пользователей и его размер.
+     *
+     * @param principalCache кэш пользователей
+     * @return регистрация метрик
+     */
+    @Bean
+    public MeterBinder principalCacheMetrics(PrincipalCache principalCache) {
+        return registry -> {
+            FunctionCounter.builder("principal.cache.requests", principalCache, PrincipalCache::hitCount)
+                    .tag("result", "hit")
+                    .description("Principal lookups served from the cache")
+                    .register(registry);
+            FunctionCounter.builder("principal.cache.requests", principalCache, PrincipalCache::missCount)
+                    .tag("result", "miss")
+                    .description("Principal lookups that loaded the user from the database")
+                    .register(registry);
+            Gauge.builder("principal.cache.size", principalCache, PrincipalCache::size)
+                    .description("Principals currently cached")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Закрепления виртуальных потоков за потоками ОС из {@link VirtualThreadPinningMonitor},
+     * если он включён.
+     *
+     * @param pinningMonitor монитор закреплений
+     * @return регистрация метрик
+     */
+    @Bean
+    public MeterBinder virtualThreadPinningMetrics(ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor) {
+        return registry -> pinningMonitor.ifAvailable(monitor -> {
+            FunctionCounter.builder("jvm.threads.virtual.pinned", monitor, VirtualThreadPinningMonitor::getPinnedCount)
+                    .description("Virtual thread pinning events above the configured threshold")
+                    .register(registry);
+            FunctionCounter.builder("jvm.threads.virtual.pinned.time", monitor,
+                            pinned -> pinned.getPinnedTime().toNanos())
+                    .baseUnit("nanoseconds")
+                    .description("Total duration of virtual thread pinning above the configured threshold")
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package hexlet.code.config;
+
+/**
+ * Бюджет обращений к БД транзакции превышен при включённом {@code app.query-budget.fail-on-exceed}.
+ * Выбрасывается до фиксации, поэтому транзакция откатывается.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
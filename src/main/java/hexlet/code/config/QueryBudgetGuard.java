@@ -0,0 +1,303 @@
+package hexlet.code.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Бюджет обращений к БД на HTTP-запрос и на транзакцию, обнаружение N+1.
+ * <p>
+ * Обращения к БД учитываются в областях (scope), открытых в текущем потоке: область HTTP-запроса
+ * открывает {@link QueryCountFilter}, область транзакции - сам этот класс при начале новой транзакции.
+ * Области вложены, обращение засчитывается всем открытым областям потока. При закрытии области,
+ * превысившей бюджет или повторившей один и тот же запрос не меньше {@code repeat-threshold} раз
+ * (типичный признак N+1), в лог пишется предупреждение с текстом запросов и местом вызова в коде
+ * приложения. Закрытие области только пишет в лог: область HTTP-запроса закрывается после ответа,
+ * а область транзакции - после её фиксации или отката, и исключение в этот момент выдало бы клиенту
+ * ошибку для уже зафиксированных данных или скрыло бы исходную ошибку.
+ * </p>
+ * <p>
+ * Если {@code fail-on-exceed} включён, транзакция, превысившая бюджет, прерывается перед фиксацией
+ * исключением {@link QueryBudgetExceededException} и откатывается. Учитываются обращения к БД до начала
+ * фиксации; бюджет HTTP-запроса проверяется только в логе.
+ * </p>
+ * <p>
+ * Настройки - свойства {@code app.query-budget.*}; нулевой бюджет отключает проверку.
+ * </p>
+ */
+public final class QueryBudgetGuard implements QueryExecutionListener, TransactionExecutionListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryBudgetGuard.class);
+
+    private static final String APP_PACKAGE = "hexlet.code.";
+    private static final String OWN_CLASS = QueryBudgetGuard.class.getName();
+    private static final int HINT_FRAMES = 3;
+
+    private final int requestBudget;
+    private final int transactionBudget;
+    private final int repeatThreshold;
+    private final boolean failOnExceed;
+    private final ThreadLocal<Deque<Scope>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public QueryBudgetGuard(int requestBudget, int transactionBudget, int repeatThreshold, boolean failOnExceed) {
+        this.requestBudget = requestBudget;
+        this.transactionBudget = transactionBudget;
+        this.repeatThreshold = repeatThreshold;
+        this.failOnExceed = failOnExceed;
+    }
+
+    /**
+     * Открывает область HTTP-запроса с бюджетом {@code app.query-budget.per-request}.
+     *
+     * @param name описание запроса для лога, например "GET /api/tasks"
+     * @return открытая область
+     */
+    public Scope openRequest(String name) {
+        return open(name, requestBudget);
+    }
+
+    /**
+     * Открывает область в текущем потоке. Область нужно закрыть через {@link #close(Scope)}
+     * в том же потоке.
+     *
+     * @param name   описание области для лога
+     * @param budget допустимое количество обращений к БД, 0 - без ограничения
+     * @return открытая область
+     */
+    public Scope open(String name, int budget) {
+        Scope scope = new Scope(name, budget, repeatThreshold);
+        scopes.get().push(scope);
+        return scope;
+    }
+
+    /**
+     * Закрывает область (и незакрытые вложенные в неё) и пишет в лог предупреждение,
+     * если бюджет превышен или запрос повторялся.
+     *
+     * @param scope область, открытая в текущем потоке
+     */
+    public void close(Scope scope) {
+        if (!detach(scope)) {
+            return;
+        }
+        if (scope.isOverBudget() || scope.hasRepeats()) {
+            LOGGER.warn("{}", scope.describe());
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // Учитываются только выполненные запросы
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Deque<Scope> open = scopes.get();
+        if (open.isEmpty()) {
+            scopes.remove();
+            return;
+        }
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        String hint = null;
+        for (Scope scope : open) {
+            if (scope.record(sql) && hint == null) {
+                hint = callSite();
+            }
+            if (hint != null) {
+                scope.hint(sql, hint);
+            }
+        }
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null) {
+            String name = transaction.getTransactionName();
+            Scope scope = open("transaction " + (name == null || name.isEmpty() ? "<unnamed>" : name),
+                    transactionBudget);
+            scope.owner = transaction;
+        }
+    }
+
+    /**
+     * Прерывает фиксацию транзакции, превысившей бюджет, если включён {@code fail-on-exceed}.
+     * Менеджер транзакций откатывает её и передаёт исключение вызывающему.
+     *
+     * @param transaction фиксируемая транзакция
+     * @throws QueryBudgetExceededException если бюджет транзакции превышен
+     */
+    @Override
+    public void beforeCommit(TransactionExecution transaction) {
+        if (!failOnExceed) {
+            return;
+        }
+        Scope scope = findTransactionScope(transaction);
+        if (scope != null && scope.isOverBudget()) {
+            throw new QueryBudgetExceededException(scope.describe());
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        closeTransaction(transaction);
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        closeTransaction(transaction);
+    }
+
+    private void closeTransaction(TransactionExecution transaction) {
+        Scope scope = findTransactionScope(transaction);
+        if (scope != null) {
+            close(scope);
+        }
+    }
+
+    private Scope findTransactionScope(TransactionExecution transaction) {
+        for (Scope scope : scopes.get()) {
+            if (scope.owner == transaction) {
+                return scope;
+            }
+        }
+        return null;
+    }
+
+    private boolean detach(Scope scope) {
+        Deque<Scope> open = scopes.get();
+        if (!open.contains(scope)) {
+            return false;
+        }
+        // Вложенные области, которые не были закрыты, закрываются вместе с внешней
+        Scope top;
+        do {
+            top = open.pop();
+        } while (top != scope);
+        if (open.isEmpty()) {
+            scopes.remove();
+        }
+        return true;
+    }
+
+    // Ближайшие к запросу методы приложения, без прокси Spring и самого учёта запросов
+    private static String callSite() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                        && !frame.getClassName().equals(OWN_CLASS)
+                        && !frame.getClassName().startsWith(OWN_CLASS + "$")
+                        && !frame.getClassName().contains("$$"))
+                .limit(HINT_FRAMES)
+                .map(StackWalker.StackFrame::toStackTraceElement)
+                .map(StackTraceElement::toString)
+                .collect(Collectors.joining(" <- ")));
+    }
+
+    /**
+     * Область учёта обращений к БД: HTTP-запрос, транзакция или фрагмент теста.
+     */
+    public static final class Scope {
+
+        private final String name;
+        private final int budget;
+        private final int repeatThreshold;
+        private final Map<String, Statement> statements = new LinkedHashMap<>();
+        private int count;
+        private TransactionExecution owner;
+
+        private Scope(String name, int budget, int repeatThreshold) {
+            this.name = name;
+            this.budget = budget;
+            this.repeatThreshold = repeatThreshold;
+        }
+
+        /**
+         * Возвращает количество обращений к БД в области.
+         *
+         * @return количество обращений
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Проверяет, превышен ли бюджет области.
+         *
+         * @return true, если бюджет задан и превышен
+         */
+        public boolean isOverBudget() {
+            return budget > 0 && count > budget;
+        }
+
+        /**
+         * Описывает область для лога: количество обращений и выполненные запросы, начиная с самых частых.
+         * Запросы, повторённые не меньше {@code repeat-threshold} раз, помечаются как N+1.
+         *
+         * @return многострочное описание
+         */
+        public String describe() {
+            StringBuilder description = new StringBuilder()
+                    .append(name).append(": ").append(count).append(" queries");
+            if (budget > 0) {
+                description.append(" (budget ").append(budget).append(')');
+            }
+            statements.values().stream()
+                    .sorted((left, right) -> Integer.compare(right.count, left.count))
+                    .forEach(statement -> {
+                        description.append(System.lineSeparator()).append("  ").append(statement.count).append("x ");
+                        if (statement.count >= repeatThreshold) {
+                            description.append("[N+1] ");
+                        }
+                        description.append(statement.sql);
+                        if (statement.hint != null && !statement.hint.isEmpty()) {
+                            description.append(System.lineSeparator()).append("      at ").append(statement.hint);
+                        }
+                    });
+            return description.toString();
+        }
+
+        private boolean hasRepeats() {
+            return statements.values().stream().anyMatch(statement -> statement.count >= repeatThreshold);
+        }
+
+        // true, если запрос встретился в области впервые
+        private boolean record(String sql) {
+            count++;
+            Statement statement = statements.get(sql);
+            if (statement != null) {
+                statement.count++;
+                return false;
+            }
+            statements.put(sql, new Statement(sql));
+            return true;
+        }
+
+        private void hint(String sql, String hint) {
+            Statement statement = statements.get(sql);
+            if (statement.hint == null) {
+                statement.hint = hint;
+            }
+        }
+    }
+
+    private static final class Statement {
+
+        private final String sql;
+        private int count = 1;
+        private String hint;
+
+        Statement(String sql) {
+            this.sql = sql;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package hexlet.code.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Открывает на время HTTP-запроса область {@link QueryBudgetGuard} и записывает количество обращений к БД
+ * за запрос в метрику {@code http.server.requests.queries} с тегами метода и шаблона URI.
+ * Учитываются запросы из потока обработки запроса; потоковая выгрузка, которая пишет ответ
+ * в другом потоке, учитывается только в общем {@code jdbc.queries}.
+ */
+public final class QueryCountFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final QueryBudgetGuard queryBudget;
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountFilter(QueryBudgetGuard queryBudget, MeterRegistry meterRegistry) {
+        this.queryBudget = queryBudget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryBudgetGuard.Scope scope = queryBudget.openRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("http.server.requests.queries")
+                    .description("Database statements executed per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : UNKNOWN_URI)
+                    .register(meterRegistry)
+                    .record(scope.getCount());
+            queryBudget.close(scope);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package hexlet.code.config;
+
+import hexlet.code.service.CollectionsChangedEvent;
+import hexlet.code.util.ExpiringLruCache;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Пользователи и клиенты, недавно изменившие данные. Пока не истекло окно {@code read-your-writes-window},
+ * чтение для них идёт с основного сервера, чтобы они видели свои изменения,
+ * даже если реплика ещё их не получила.
+ * <p>
+ * Пользователь отмечается по {@link CollectionsChangedEvent}, то есть только после фиксации транзакции,
+ * которая действительно изменила данные. Транзакция без признака «только для чтения», которая ничего
+ * не записала (например, загрузка реестра статусов при обычном GET), пользователя не отмечает.
+ * </p>
+ * <p>
+ * Список пользователей хранится в памяти процесса. Чтобы признак записи видели и другие экземпляры
+ * приложения, ответ на запрос с записью получает cookie {@value #COOKIE_NAME} со временем записи:
+ * клиент возвращает её с последующими запросами в пределах окна. Клиенты API, которые не хранят cookie,
+ * видят свои изменения, только если их запросы попадают на тот же экземпляр приложения.
+ * </p>
+ */
+public final class RecentWriters {
+
+    /**
+     * Имя cookie со временем последней записи клиента (миллисекунды от начала эпохи).
+     */
+    public static final String COOKIE_NAME = "last_write";
+
+    private final Duration window;
+    private final ExpiringLruCache<String, Boolean> writers;
+
+    public RecentWriters(Duration window, int maxSize) {
+        this.window = window;
+        this.writers = new ExpiringLruCache<>(maxSize, window);
+    }
+
+    /**
+     * Проверяет, изменял ли текущий пользователь или клиент данные в пределах окна.
+     *
+     * @return true, если пользователь аутентифицирован и недавно изменял данные на этом экземпляре
+     *         или запрос содержит cookie записи в пределах окна
+     */
+    public boolean isCurrentUserRecentWriter() {
+        String user = currentUser();
+        return (user != null && writers.getIfPresent(user) != null) || hasRecentWriteCookie();
+    }
+
+    /**
+     * Отмечает, что текущий пользователь изменил данные, и добавляет в ответ cookie записи.
+     */
+    public void markCurrentUser() {
+        String user = currentUser();
+        if (user != null) {
+            writers.put(user, Boolean.TRUE);
+        }
+        addWriteCookie();
+    }
+
+    /**
+     * Отмечает текущего пользователя после фиксации изменений данных в его потоке.
+     *
+     * @param event событие об изменённых коллекциях
+     */
+    @EventListener
+    public void onCollectionsChanged(CollectionsChangedEvent event) {
+        markCurrentUser();
+    }
+
+    private boolean hasRecentWriteCookie() {
+        HttpServletRequest request = currentRequest() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()
+                : null;
+        if (request == null || request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    // Часы экземпляров могут расходиться, поэтому время записи допускается и чуть впереди
+                    long age = System.currentTimeMillis() - Long.parseLong(cookie.getValue());
+                    return Math.abs(age) < window.toMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addWriteCookie() {
+        HttpServletResponse response = currentRequest() instanceof ServletRequestAttributes attributes
+                ? attributes.getResponse()
+                : null;
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, String.valueOf(System.currentTimeMillis()))
+                .path("/")
+                .maxAge(window)
+                .httpOnly(true)
+                .sameSite("Strict")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private static RequestAttributes currentRequest() {
+        return RequestContextHolder.getRequestAttributes();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,117 @@
+package hexlet.code.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hexlet.code.service.CollectionVersions;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик БД. Включается, если задан список {@code app.datasource.replica-urls}: тогда вместо
+ * автоконфигурации Spring Boot создаются пулы соединений основного сервера ({@code spring.datasource.*})
+ * и реплик (те же учётные данные и настройки {@code spring.datasource.hikari.*}), а единственным
+ * источником данных приложения становится {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica-urls:}'.isBlank()")
+public class ReplicaRoutingConfig {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    /**
+     * Пулы соединений основного сервера и реплик с фоновой проверкой отставания реплик.
+     *
+     * @param properties    настройки основного сервера
+     * @param environment   окружение для настроек пулов
+     * @param meterRegistry реестр метрик для пулов реплик
+     * @param replicaUrls   JDBC URL реплик
+     * @param lagQuery      запрос отставания реплики в секундах
+     * @param checkInterval период проверки отставания
+     * @return основной сервер и реплики
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaSet replicaSet(DataSourceProperties properties, Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${app.datasource.replica-urls}") List<String> replicaUrls,
+                                 @Value("${app.datasource.replica-lag-query}") String lagQuery,
+                                 @Value("${app.datasource.lag-check-interval:1s}") Duration checkInterval) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(primary));
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+
+        List<ReplicaSet.Replica> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .driverClassName(properties.determineDriverClassName())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            binder.bind(HIKARI_PREFIX, Bindable.ofInstance(replica));
+            replica.setPoolName(name);
+            // Пул основного сервера Spring Boot находит через источник данных и регистрирует в метриках сам
+            meterRegistry.ifAvailable(registry ->
+                    replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(new ReplicaSet.Replica(name, replica));
+        }
+
+        ReplicaSet replicaSet = new ReplicaSet(primary, replicas, lagQuery);
+        replicaSet.startLagChecks(checkInterval);
+        return replicaSet;
+    }
+
+    /**
+     * Пользователи, чьи чтения идут с основного сервера после записи.
+     *
+     * @param window  время после записи, в течение которого чтение идёт с основного сервера
+     * @param maxSize максимальное количество отслеживаемых пользователей
+     * @return недавно писавшие пользователи
+     */
+    @Bean
+    public RecentWriters recentWriters(@Value("${app.datasource.read-your-writes-window:5s}") Duration window,
+                                       @Value("${app.datasource.read-your-writes-max-users:10000}") int maxSize) {
+        return new RecentWriters(window, maxSize);
+    }
+
+    /**
+     * Источник данных приложения: маршрутизация между основным сервером и репликами.
+     *
+     * @param replicaSet         основной сервер и реплики
+     * @param recentWriters      недавно писавшие пользователи
+     * @param collectionVersions версии коллекций и время их изменения
+     * @param maxLag             допустимое отставание реплики
+     * @param checkInterval      период проверки отставания
+     * @return источник данных
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaSet replicaSet, RecentWriters recentWriters,
+                                 CollectionVersions collectionVersions,
+                                 @Value("${app.datasource.max-replica-lag:2s}") Duration maxLag,
+                                 @Value("${app.datasource.lag-check-interval:1s}") Duration checkInterval) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaSet, maxLag, checkInterval,
+                recentWriters, collectionVersions));
+    }
+}
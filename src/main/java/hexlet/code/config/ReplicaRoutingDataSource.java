@@ -0,0 +1,156 @@
+package hexlet.code.config;
+
+import hexlet.code.service.CollectionVersions;
+import hexlet.code.service.VersionedCollection;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Направляет транзакции только для чтения ({@code @Transactional(readOnly = true)}) на реплики,
+ * остальные запросы - на основной сервер.
+ * <p>
+ * Реплики выбираются по кругу среди тех, что доступны и отстают не больше чем на {@code maxLag}.
+ * Если таких нет или текущий пользователь недавно изменял данные ({@link RecentWriters}),
+ * чтение идёт с основного сервера.
+ * </p>
+ * <p>
+ * Ответ на запрос к версионируемой коллекции получает ETag текущей версии ({@link ConditionalGetInterceptor}),
+ * а список задач ещё и разрешается индексами в памяти процесса, которые видят все зафиксированные изменения.
+ * Реплика, которая отстаёт не больше чем на {@code maxLag} по последней проверке, содержит все изменения,
+ * зафиксированные раньше чем {@code maxLag + lagCheckInterval} назад. Если коллекция запроса изменялась
+ * позже ({@link CollectionVersions#getChangedAt}), чтение идёт с основного сервера: иначе ответ оказался бы
+ * старее своего ETag, а страница задач по ID из индекса - неполной.
+ * </p>
+ * <p>
+ * Признак «только для чтения» устанавливается уже после того, как менеджер транзакций запросил соединение,
+ * поэтому источник данных нужно оборачивать в
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: тот получает соединение
+ * при первом запросе к БД, когда признак уже известен.
+ * </p>
+ * <p>
+ * Кэши в памяти процесса, которые заполняются на запросах пользователей, читают с основного сервера
+ * через {@link #readFromPrimary(Supplier)}, не снимая признак «только для чтения»: соединение, полученное
+ * внутри, идёт на основной сервер. Если транзакция вызывающего уже получила соединение с реплики,
+ * {@link #isCurrentTransactionOnReplica()} сообщает об этом, и прочитанное не стоит кэшировать.
+ * </p>
+ */
+public final class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Ключ маршрутизации основного сервера.
+     */
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUESTED = new ThreadLocal<>();
+    // Ключ ресурса транзакции, получившей соединение с реплики
+    private static final Object REPLICA_TRANSACTION = new Object();
+
+    private final List<ReplicaSet.Replica> replicas;
+    private final Duration maxLag;
+    private final RecentWriters recentWriters;
+    private final CollectionVersions collectionVersions;
+    private final Duration replicationWindow;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(ReplicaSet replicaSet, Duration maxLag, Duration lagCheckInterval,
+                                    RecentWriters recentWriters, CollectionVersions collectionVersions) {
+        this.replicas = replicaSet.getReplicas();
+        this.maxLag = maxLag;
+        this.recentWriters = recentWriters;
+        this.collectionVersions = collectionVersions;
+        this.replicationWindow = maxLag.plus(lagCheckInterval);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, replicaSet.getPrimary());
+        replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(replicaSet.getPrimary());
+        setLenientFallback(false);
+        initialize();
+    }
+
+    /**
+     * Выполняет действие так, чтобы соединения, полученные в нём, шли на основной сервер,
+     * в том числе в транзакциях только для чтения.
+     *
+     * @param action действие
+     * @param <T>    тип результата
+     * @return результат действия
+     */
+    public static <T> T readFromPrimary(Supplier<T> action) {
+        if (PRIMARY_REQUESTED.get() != null) {
+            return action.get();
+        }
+        PRIMARY_REQUESTED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_REQUESTED.remove();
+        }
+    }
+
+    /**
+     * Проверяет, читает ли текущая транзакция с реплики.
+     *
+     * @return true, если транзакция получила соединение с реплики
+     */
+    public static boolean isCurrentTransactionOnReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_TRANSACTION);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || PRIMARY_REQUESTED.get() != null
+                || recentWriters.isCurrentUserRecentWriter()
+                || isRequestCollectionRecentlyChanged()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaSet.Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isReadable(maxLag)) {
+                markTransactionOnReplica();
+                return replica.getName();
+            }
+        }
+        return PRIMARY;
+    }
+
+    private static void markTransactionOnReplica() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(REPLICA_TRANSACTION)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_TRANSACTION, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_TRANSACTION);
+            }
+        });
+    }
+
+    private boolean isRequestCollectionRecentlyChanged() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        Object collection = attributes.getAttribute(ConditionalGetInterceptor.VERSIONED_COLLECTION_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        return collection instanceof VersionedCollection versioned
+                && collectionVersions.getChangedAt(versioned).isAfter(Instant.now().minus(replicationWindow));
+    }
+}
@@ -0,0 +1,178 @@
+package hexlet.code.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Основной сервер БД и его реплики для чтения с отставанием каждой реплики.
+ * <p>
+ * Отставание измеряется запросом {@code lagQuery}, который выполняется на реплике и возвращает
+ * отставание в секундах. Реплика, на которой запрос не выполнился, считается недоступной
+ * до следующей успешной проверки. Владеет пулами соединений и закрывает их в {@link #close()}.
+ * </p>
+ */
+public final class ReplicaSet implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaSet.class);
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private ScheduledExecutorService lagChecks;
+
+    public ReplicaSet(DataSource primary, List<Replica> replicas, String lagQuery) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * Возвращает основной сервер.
+     *
+     * @return источник данных основного сервера
+     */
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Возвращает реплики в порядке конфигурации.
+     *
+     * @return реплики
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Измеряет отставание реплик сейчас и затем периодически в фоновом потоке.
+     *
+     * @param interval период проверки
+     */
+    public synchronized void startLagChecks(Duration interval) {
+        checkLag();
+        if (lagChecks == null) {
+            lagChecks = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                    .name("replica-lag-check")
+                    .daemon()
+                    .factory());
+            lagChecks.scheduleWithFixedDelay(this::checkLag, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Измеряет отставание всех реплик.
+     */
+    public void checkLag() {
+        replicas.forEach(replica -> replica.checkLag(lagQuery));
+    }
+
+    /**
+     * Останавливает проверки отставания и закрывает пулы соединений.
+     */
+    @Override
+    public synchronized void close() {
+        if (lagChecks != null) {
+            lagChecks.shutdownNow();
+            lagChecks = null;
+        }
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.getDataSource()));
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                LOGGER.warn("Failed to close data source {}", dataSource, e);
+            }
+        }
+    }
+
+    /**
+     * Реплика для чтения и её последнее измеренное отставание.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        // null - отставание неизвестно или реплика недоступна
+        private volatile Duration lag;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Возвращает имя реплики, оно же ключ маршрутизации.
+         *
+         * @return имя реплики
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Возвращает источник данных реплики.
+         *
+         * @return источник данных
+         */
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        /**
+         * Возвращает последнее измеренное отставание.
+         *
+         * @return отставание или null, если реплика недоступна или ещё не проверялась
+         */
+        public Duration getLag() {
+            return lag;
+        }
+
+        /**
+         * Проверяет, можно ли читать с реплики.
+         *
+         * @param maxLag допустимое отставание
+         * @return true, если реплика доступна и отстаёт не больше чем на {@code maxLag}
+         */
+        public boolean isReadable(Duration maxLag) {
+            Duration current = lag;
+            return current != null && current.compareTo(maxLag) <= 0;
+        }
+
+        private void checkLag(String lagQuery) {
+            Duration previous = lag;
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                double seconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+                lag = Duration.ofNanos((long) (Math.max(seconds, 0) * NANOS_PER_SECOND));
+                if (previous == null) {
+                    LOGGER.info("Replica {} is available, lag {}", name, lag);
+                }
+            } catch (SQLException | RuntimeException e) {
+                lag = null;
+                if (previous != null) {
+                    LOGGER.warn("Replica {} is unavailable, reads go to the primary", name, e);
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package hexlet.code.config;
 
+import hexlet.code.service.PrincipalCache;
 import hexlet.code.service.UserDetailsServiceImpl;
 import hexlet.code.util.JWTUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,6 +18,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -24,15 +27,26 @@ public class SecurityConfig {
 
     private final UserDetailsServiceImpl userDetailsService;
     private final JWTUtils jwtUtils;
+    private final PrincipalCache principalCache;
+    private final boolean statelessClaims;
+    private final int managementPort;
 
-    public SecurityConfig(UserDetailsServiceImpl userDetailsService, JWTUtils jwtUtils) {
+    public SecurityConfig(UserDetailsServiceImpl userDetailsService, JWTUtils jwtUtils,
+                          PrincipalCache principalCache,
+                          @Value("${app.jwt.stateless-claims:false}") boolean statelessClaims,
+                          @Value("${management.server.port:-1}") int managementPort) {
         this.userDetailsService = userDetailsService;
         this.jwtUtils = jwtUtils;
+        this.principalCache = principalCache;
+        this.statelessClaims = statelessClaims;
+        this.managementPort = managementPort;
     }
 
     /**
      * Конфигурация цепочки фильтров безопасности.
      * Настраивает обработку запросов, исключая CSRF, и добавляет фильтр аутентификации JWT.
+     * Метрики на порту приложения доступны только администраторам; без токена они отдаются лишь
+     * на отдельном внутреннем порту ({@code management.server.port}), если он задан.
      *
      * @param http HttpSecurity для настройки безопасности HTTP.
      * @return настроенная цепочка фильтров безопасности.
@@ -45,6 +59,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/login", "/api/pages/*", "/api/pages", "/",
                                 "/index.html", "/assets/**", "/welcome").permitAll() // разрешаем доступ к /welcome
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers(managementPortRequests()).permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -52,6 +69,11 @@ public class SecurityConfig {
                 .build();
     }
 
+    // Запросы на внутренний порт метрик, который не публикуется наружу
+    private RequestMatcher managementPortRequests() {
+        return request -> managementPort > 0 && request.getLocalPort() == managementPort;
+    }
+
     /**
      * Создает экземпляр JWTAuthenticationFilter.
      *
@@ -59,7 +81,7 @@ public class SecurityConfig {
      */
     @Bean
     public JWTAuthenticationFilter jwtAuthenticationFilter() {
-        return new JWTAuthenticationFilter(jwtUtils, userDetailsService);
+        return new JWTAuthenticationFilter(jwtUtils, principalCache, statelessClaims);
     }
 
     /**
@@ -0,0 +1,48 @@
+package hexlet.code.config;
+
+import hexlet.code.model.Task;
+import hexlet.code.repository.DatabaseSequences;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.service.TaskIndexAllocator;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+/**
+ * Выравнивает последовательности задач по уже существующим данным при старте приложения:
+ * последовательность идентификаторов (для баз, где задачи создавались ещё с IDENTITY-ключом)
+ * и последовательность порядковых номеров {@link TaskIndexAllocator}. Иначе новая последовательность
+ * начала бы выдавать уже занятые значения.
+ */
+@Component
+public final class TaskSequenceInitializer {
+
+    private final DatabaseSequences sequences;
+    private final TaskRepository taskRepository;
+
+    public TaskSequenceInitializer(DatabaseSequences sequences, TaskRepository taskRepository) {
+        this.sequences = sequences;
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Сдвигает последовательность за максимальный существующий идентификатор с запасом на один блок,
+     * который Hibernate резервирует заранее.
+     */
+    @PostConstruct
+    public void alignTaskIdSequence() {
+        long maxId = taskRepository.findMaxId();
+        if (maxId > 0) {
+            sequences.ensureSequence(Task.ID_SEQUENCE, maxId + Task.ID_ALLOCATION_SIZE + 1, Task.ID_ALLOCATION_SIZE);
+        }
+    }
+
+    /**
+     * Создаёт последовательность порядковых номеров задач или сдвигает её за максимальный существующий номер,
+     * чтобы при выдаче номеров хватало одного обращения к последовательности.
+     */
+    @PostConstruct
+    public void alignTaskIndexSequence() {
+        sequences.ensureSequence(TaskIndexAllocator.SEQUENCE_NAME, taskRepository.findMaxIndex() + 1L,
+                TaskIndexAllocator.BLOCK_SIZE);
+    }
+}
@@ -0,0 +1,72 @@
+package hexlet.code.config;
+
+import hexlet.code.service.CollectionVersions;
+import hexlet.code.service.VersionedCollection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Настройки Spring MVC.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final Duration ASSETS_MAX_AGE = Duration.ofDays(365);
+
+    private final CollectionVersions collectionVersions;
+    private final boolean conditionalGetEnabled;
+
+    public WebConfig(CollectionVersions collectionVersions,
+                     @Value("${app.conditional-get.enabled:true}") boolean conditionalGetEnabled) {
+        this.collectionVersions = collectionVersions;
+        this.conditionalGetEnabled = conditionalGetEnabled;
+    }
+
+    /**
+     * Регистрирует условные GET-запросы (ETag / If-None-Match) для коллекций API и их элементов.
+     * Версии коллекций ведутся в памяти процесса, поэтому при нескольких экземплярах приложения ETag
+     * отключаются свойством {@code app.conditional-get.enabled=false}.
+     *
+     * @param registry реестр перехватчиков
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        for (VersionedCollection collection : VersionedCollection.values()) {
+            ConditionalGetInterceptor interceptor =
+                    new ConditionalGetInterceptor(collectionVersions, collection, conditionalGetEnabled);
+            registry.addInterceptor(interceptor)
+                    .addPathPatterns(collection.getPath(), collection.getPath() + "/**");
+        }
+    }
+
+    /**
+     * Раздача SPA. Имена файлов в /assets содержат хэш содержимого, поэтому они кэшируются навсегда
+     * (immutable); index.html ссылается на них и перепроверяется при каждой загрузке страницы.
+     * Сжатые копии (.br, .gz) создаются при сборке и выбираются по Accept-Encoding.
+     *
+     * @param registry реестр обработчиков статических ресурсов
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/assets/**")
+                .addResourceLocations("classpath:/static/assets/")
+                .setCacheControl(CacheControl.maxAge(ASSETS_MAX_AGE).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new InMemoryResourceResolver())
+                .addResolver(new EncodedResourceResolver());
+
+        registry.addResourceHandler("/index.html")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new InMemoryResourceResolver())
+                .addResolver(new EncodedResourceResolver());
+    }
+}
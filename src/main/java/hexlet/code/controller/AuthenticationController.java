@@ -1,15 +1,20 @@
 package hexlet.code.controller;
 
 import hexlet.code.dto.AuthRequest;
+import hexlet.code.repository.UserRepository;
 import hexlet.code.util.JWTUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api")
 public class AuthenticationController {
@@ -20,6 +25,12 @@ public class AuthenticationController {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.jwt.stateless-claims:false}")
+    private boolean statelessClaims;
+
     /**
      * Метод для создания JWT токена при успешной аутентификации.
      *
@@ -31,7 +42,17 @@ public class AuthenticationController {
         var authentication = new UsernamePasswordAuthenticationToken(
                 authRequest.getUsername(), authRequest.getPassword());
 
-        authenticationManager.authenticate(authentication);
+        var authenticated = authenticationManager.authenticate(authentication);
+
+        if (statelessClaims) {
+            // id и роли попадают в подписанные claims, и дальнейшие запросы авторизуются без обращения к БД
+            Long userId = userRepository.findIdByEmail(authenticated.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            List<String> roles = authenticated.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList();
+            return jwtUtils.generateToken(authenticated.getName(), userId, roles);
+        }
 
         return jwtUtils.generateToken(authRequest.getUsername());
     }
@@ -1,21 +1,35 @@
 package hexlet.code.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.dto.TaskBatchDTO;
 import hexlet.code.dto.TaskCreateDTO;
+import hexlet.code.dto.TaskFacets;
+import hexlet.code.dto.TaskPage;
+import hexlet.code.dto.TaskParamsDTO;
+import hexlet.code.dto.TaskView;
 import hexlet.code.model.Task;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.model.Label;
 import hexlet.code.model.User;
 import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.TaskRepository;
+import hexlet.code.service.TaskChangeTracker;
+import hexlet.code.service.TaskIndexAllocator;
+import hexlet.code.service.TaskQueryService;
 import hexlet.code.service.TaskStatusService;
 import hexlet.code.service.UserService;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
-import org.hibernate.Hibernate;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -23,12 +37,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -37,6 +57,12 @@ public class TaskController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskController.class);
 
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String DEFAULT_SEARCH_LIMIT = "20";
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private TaskRepository taskRepository;
 
@@ -49,23 +75,120 @@ public class TaskController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskIndexAllocator taskIndexAllocator;
+
+    @Autowired
+    private TaskQueryService taskQueryService;
+
+    @Autowired
+    private TaskChangeTracker taskChangeTracker;
+
+    @Autowired
+    private Validator validator;
+
     /**
-     * Получение списка задач.
+     * Получение страницы задач с фильтрацией и постраничной навигацией по курсору (keyset pagination).
+     * Задачи отдаются по возрастанию ID, начиная со следующей после {@code after}.
+     * Если страница заполнена целиком, в заголовке X-Next-Cursor передаётся курсор следующей страницы.
      *
+     * @param params параметры фильтрации: titleCont, assigneeId, status, labelId.
+     * @param after ID последней задачи предыдущей страницы (0 для первой страницы).
+     * @param limit максимальное количество задач на странице.
      * @return Список задач в формате JSON.
      */
     @GetMapping
     @Transactional(readOnly = true)
-    public ResponseEntity<List<Map<String, Object>>> getTasks() {
-        LOGGER.info("Fetching all tasks");
-        List<Map<String, Object>> tasks = taskRepository.findAll()
-                .stream()
-                .peek(task -> Hibernate.initialize(task.getLabels())) // Инициализация labels
-                .map(this::formatTaskResponse)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<TaskView>> getTasks(
+            TaskParamsDTO params,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LOGGER.info("Fetching tasks by {} after ID {} (limit {})", params, after, pageSize);
+
+        TaskPage page = taskQueryService.findTaskPage(params, after, pageSize);
+        List<TaskView> tasks = page.tasks();
+
+        var response = ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(page.total()));
+        if (tasks.size() == pageSize) {
+            response.header("X-Next-Cursor", String.valueOf(tasks.get(tasks.size() - 1).id()));
+        }
+        return response.body(tasks);
+    }
+
+    /**
+     * Потоковая выгрузка задач в формате NDJSON (одна задача в строке).
+     * Задачи читаются порциями по курсору и сразу пишутся в ответ, поэтому расход памяти
+     * не зависит от количества задач. Поддерживает те же фильтры, что и список задач.
+     *
+     * @param params параметры фильтрации.
+     * @return Поток задач в формате application/x-ndjson.
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportTasks(TaskParamsDTO params) {
+        LOGGER.info("Exporting tasks by {}", params);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+
+                long after = 0;
+                List<TaskView> chunk;
+                do {
+                    chunk = taskQueryService.findTasks(params, after, EXPORT_CHUNK_SIZE);
+                    for (TaskView task : chunk) {
+                        generator.writeObject(task);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                    if (!chunk.isEmpty()) {
+                        after = chunk.get(chunk.size() - 1).id();
+                    }
+                } while (chunk.size() == EXPORT_CHUNK_SIZE);
+            }
+        };
         return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(tasks.size()))
-                .body(tasks);
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    /**
+     * Количество задач в разрезе статусов, меток и исполнителей для виджетов фильтров.
+     * Поддерживает те же фильтры, что и список задач.
+     *
+     * @param params параметры фильтрации.
+     * @return Общее количество задач и количество по slug статуса, ID метки и ID исполнителя.
+     */
+    @GetMapping("/facets")
+    @Transactional(readOnly = true)
+    public ResponseEntity<TaskFacets> getTaskFacets(TaskParamsDTO params) {
+        LOGGER.info("Counting task facets by {}", params);
+        return ResponseEntity.ok(taskQueryService.countFacets(params));
+    }
+
+    /**
+     * Полнотекстовый поиск задач по названию и описанию.
+     * Ищутся задачи, содержащие все слова запроса; результаты упорядочены по релевантности.
+     * Поиск выполняется по индексу в памяти процесса, а пока индекс недоступен - запросом к БД
+     * (без ранжирования, по возрастанию ID).
+     *
+     * @param query строка запроса.
+     * @param limit максимальное количество задач.
+     * @return Список найденных задач в формате JSON.
+     */
+    @GetMapping("/search")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<TaskView>> searchTasks(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_SEARCH_LIMIT) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LOGGER.info("Searching tasks by '{}' (limit {})", query, pageSize);
+
+        return ResponseEntity.ok(taskQueryService.searchTasks(query, pageSize));
     }
 
     /**
@@ -76,12 +199,11 @@ public class TaskController {
      */
     @GetMapping("/{id}")
     @Transactional(readOnly = true)
-    public ResponseEntity<Object> getTaskById(@PathVariable Long id) {
+    public ResponseEntity<TaskView> getTaskById(@PathVariable Long id) {
         LOGGER.info("Fetching task with ID: {}", id);
-        Task task = taskRepository.findTaskWithLabelsById(id)
+        TaskView task = taskRepository.findTaskViewById(id)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
-        Hibernate.initialize(task.getLabels()); // Инициализация labels
-        return ResponseEntity.ok(formatTaskResponse(task));
+        return ResponseEntity.ok(task);
     }
 
     /**
@@ -92,7 +214,8 @@ public class TaskController {
      */
     @PostMapping
     @Transactional
-    public ResponseEntity<Object> createTask(@RequestBody @Valid TaskCreateDTO taskCreateDTO) {
+    public ResponseEntity<Object> createTask(
+            @RequestBody @Validated({Default.class, TaskCreateDTO.OnCreate.class}) TaskCreateDTO taskCreateDTO) {
         LOGGER.info("Creating new task: {}", taskCreateDTO);
 
         Task task = new Task();
@@ -100,8 +223,7 @@ public class TaskController {
         task.setDescription(taskCreateDTO.getDescription());
 
         // Устанавливаем индекс задачи
-        int nextIndex = (int) taskRepository.count() + 1;
-        task.setIndex(nextIndex);
+        task.setIndex(taskIndexAllocator.nextIndex());
 
         // Устанавливаем исполнителя задачи (может быть null)
         if (taskCreateDTO.getAssigneeId() != null) {
@@ -122,17 +244,73 @@ public class TaskController {
 
         // Устанавливаем метки задачи
         if (taskCreateDTO.getTaskLabelIds() != null && !taskCreateDTO.getTaskLabelIds().isEmpty()) {
-            Set<Label> labels = taskCreateDTO.getTaskLabelIds().stream()
-                    .map(id -> labelRepository.findById(id)
-                            .orElseThrow(() -> new RuntimeException("Label not found: " + id)))
-                    .collect(Collectors.toSet());
-            task.setLabels(labels);
+            task.setLabels(new HashSet<>(resolveLabels(taskCreateDTO.getTaskLabelIds()).values()));
         }
 
         Task createdTask = taskRepository.save(task);
         LOGGER.info("Task created successfully: {}", createdTask);
 
-        return ResponseEntity.status(201).body(formatTaskResponse(createdTask));
+        return ResponseEntity.status(201).body(TaskView.from(createdTask));
+    }
+
+    /**
+     * Пакетное создание задач в одной транзакции.
+     * Статусы, исполнители и метки всех задач разрешаются одним IN-запросом на каждый вид,
+     * а вставки отправляются в БД пакетами JDBC (идентификаторы задач берутся из последовательности).
+     * Каждая задача проверяется так же, как при создании по одной; размер пакета ограничен
+     * {@link TaskBatchDTO#MAX_SIZE} уже при разборе тела запроса.
+     *
+     * @param batch пакет DTO с данными для создания задач.
+     * @return Созданные задачи в формате JSON в порядке запроса.
+     */
+    @PostMapping("/batch")
+    @Transactional
+    public ResponseEntity<List<TaskView>> createTasks(@RequestBody TaskBatchDTO batch) {
+        List<TaskCreateDTO> taskCreateDTOs = batch.tasks();
+        LOGGER.info("Creating {} tasks in batch", taskCreateDTOs.size());
+        validateBatch(taskCreateDTOs);
+
+        Map<String, TaskStatus> statuses = taskStatusService.getTaskStatusesBySlugs(taskCreateDTOs.stream()
+                .map(TaskCreateDTO::getStatus)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        Map<Long, User> assignees = userService.findUserReferences(taskCreateDTOs.stream()
+                .map(TaskCreateDTO::getAssigneeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        Map<Long, Label> labels = resolveLabels(taskCreateDTOs.stream()
+                .map(TaskCreateDTO::getTaskLabelIds)
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet()));
+        TaskStatus defaultStatus = taskCreateDTOs.stream().anyMatch(dto -> dto.getStatus() == null)
+                ? taskStatusService.getDefaultTaskStatus()
+                : null;
+
+        List<Task> tasks = new ArrayList<>(taskCreateDTOs.size());
+        for (TaskCreateDTO dto : taskCreateDTOs) {
+            Task task = new Task();
+            task.setName(dto.getName());
+            task.setDescription(dto.getDescription());
+            task.setIndex(taskIndexAllocator.nextIndex());
+            task.setAssignee(dto.getAssigneeId() != null ? assignees.get(dto.getAssigneeId()) : null);
+            task.setTaskStatus(dto.getStatus() != null
+                    ? statuses.get(dto.getStatus().toLowerCase())
+                    : defaultStatus);
+            if (dto.getTaskLabelIds() != null) {
+                task.setLabels(dto.getTaskLabelIds().stream()
+                        .map(labels::get)
+                        .collect(Collectors.toSet()));
+            }
+            tasks.add(task);
+        }
+
+        List<TaskView> createdTasks = taskRepository.saveAll(tasks).stream()
+                .map(TaskView::from)
+                .toList();
+        LOGGER.info("Created {} tasks in batch", createdTasks.size());
+
+        return ResponseEntity.status(201).body(createdTasks);
     }
 
     /**
@@ -161,11 +339,9 @@ public class TaskController {
             existingTask.setTaskStatus(taskStatus);
         }
         if (taskCreateDTO.getTaskLabelIds() != null) {
-            Set<Label> labels = taskCreateDTO.getTaskLabelIds().stream()
-                    .map(labelId -> labelRepository.findById(labelId)
-                            .orElseThrow(() -> new RuntimeException("Label not found: " + labelId)))
-                    .collect(Collectors.toSet());
-            existingTask.setLabels(labels);
+            existingTask.setLabels(new HashSet<>(resolveLabels(taskCreateDTO.getTaskLabelIds()).values()));
+            // Изменение только коллекции меток не вызывает @PostUpdate, отмечаем задачу явно
+            taskChangeTracker.markChanged(existingTask.getId());
         }
         // Обновляем Assignee
         if (taskCreateDTO.getAssigneeId() != null) {
@@ -178,7 +354,7 @@ public class TaskController {
         Task updatedTask = taskRepository.save(existingTask);
         LOGGER.info("Task updated successfully: {}", updatedTask);
 
-        return ResponseEntity.ok(formatTaskResponse(updatedTask));
+        return ResponseEntity.ok(TaskView.from(updatedTask));
     }
 
     /**
@@ -207,16 +383,49 @@ public class TaskController {
         return userService.findUserById(assigneeId);
     }
 
-    private Map<String, Object> formatTaskResponse(Task task) {
-        Map<String, Object> response = new LinkedHashMap<>();
-        response.put("id", task.getId());
-        response.put("index", task.getIndex());
-        response.put("createdAt", task.getCreatedAt());
-        response.put("assignee_id", task.getAssignee() != null ? task.getAssignee().getId() : null);
-        response.put("title", task.getName());
-        response.put("content", task.getDescription());
-        response.put("status", task.getTaskStatus() != null ? task.getTaskStatus().getSlug() : null);
-        response.put("taskLabelIds", task.getLabels().stream().map(Label::getId).collect(Collectors.toSet()));
-        return response;
+    /**
+     * Проверяет все задачи пакета до вставки: ограничения {@link TaskCreateDTO} для создания
+     * применяются к каждому элементу списка.
+     *
+     * @param taskCreateDTOs Задачи пакета.
+     * @throws RuntimeException если задача не прошла проверку (с номером задачи в пакете).
+     */
+    private void validateBatch(List<TaskCreateDTO> taskCreateDTOs) {
+        for (int i = 0; i < taskCreateDTOs.size(); i++) {
+            Set<ConstraintViolation<TaskCreateDTO>> violations =
+                    validator.validate(taskCreateDTOs.get(i), Default.class, TaskCreateDTO.OnCreate.class);
+            if (!violations.isEmpty()) {
+                throw new RuntimeException("Task " + i + ": " + violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            }
+        }
+    }
+
+    /**
+     * Разрешает метки одним запросом по списку ID. Возвращаются ссылки на метки (без загрузки
+     * самих меток и связанных с ними задач), которых достаточно для записи связи задача-метка.
+     *
+     * @param labelIds ID меток.
+     * @return Метки по ID.
+     * @throws RuntimeException если какие-то метки не найдены (перечисляются все отсутствующие ID).
+     */
+    private Map<Long, Label> resolveLabels(Collection<Long> labelIds) {
+        if (labelIds.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> existingIds = new HashSet<>(labelRepository.findExistingIds(labelIds));
+        List<Long> missingIds = labelIds.stream()
+                .filter(labelId -> !existingIds.contains(labelId))
+                .sorted()
+                .toList();
+        if (!missingIds.isEmpty()) {
+            throw new RuntimeException("Label not found: " + missingIds.stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", ")));
+        }
+        return existingIds.stream()
+                .collect(Collectors.toMap(Function.identity(), labelRepository::getReferenceById));
     }
 }
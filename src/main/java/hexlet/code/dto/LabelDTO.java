@@ -1,5 +1,7 @@
 package hexlet.code.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.Instant;
 
 public class LabelDTO {
@@ -8,6 +10,10 @@ public class LabelDTO {
     private String name;
     private Instant createdAt;
 
+    // Заполняется только в списке меток; в остальных ответах поле не выводится
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long taskCount;
+
     // Пустой конструктор
     public LabelDTO() {
     }
@@ -19,6 +25,12 @@ public class LabelDTO {
         this.createdAt = createdAt;
     }
 
+    // Конструктор для агрегирующего запроса с количеством задач
+    public LabelDTO(Long id, String name, Instant createdAt, Long taskCount) {
+        this(id, name, createdAt);
+        this.taskCount = taskCount;
+    }
+
     /**
      * Возвращает идентификатор метки.
      *
@@ -72,4 +84,22 @@ public class LabelDTO {
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
     }
+
+    /**
+     * Возвращает количество задач с этой меткой.
+     *
+     * @return количество задач или null, если оно не вычислялось
+     */
+    public Long getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * Устанавливает количество задач с этой меткой.
+     *
+     * @param taskCount количество задач
+     */
+    public void setTaskCount(Long taskCount) {
+        this.taskCount = taskCount;
+    }
 }
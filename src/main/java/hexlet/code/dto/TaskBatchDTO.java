@@ -0,0 +1,56 @@
+package hexlet.code.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Тело запроса пакетного создания задач: JSON-массив {@link TaskCreateDTO}.
+ * Массив читается поэлементно, и разбор прерывается, как только элементов становится больше
+ * {@link #MAX_SIZE}, поэтому слишком большой пакет не десериализуется целиком.
+ *
+ * @param tasks задачи в порядке запроса
+ */
+@JsonDeserialize(using = TaskBatchDTO.Deserializer.class)
+public record TaskBatchDTO(List<TaskCreateDTO> tasks) {
+
+    /**
+     * Максимальное количество задач в пакете.
+     */
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * Читает массив задач, проверяя размер пакета до разбора каждого следующего элемента.
+     */
+    public static final class Deserializer extends StdDeserializer<TaskBatchDTO> {
+
+        public Deserializer() {
+            super(TaskBatchDTO.class);
+        }
+
+        @Override
+        public TaskBatchDTO deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartArrayToken()) {
+                return (TaskBatchDTO) context.handleUnexpectedToken(TaskBatchDTO.class, parser);
+            }
+            List<TaskCreateDTO> tasks = new ArrayList<>();
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw JsonMappingException.from(parser, "Unexpected end of task batch");
+                }
+                if (tasks.size() == MAX_SIZE) {
+                    throw JsonMappingException.from(parser, "Batch size must not exceed " + MAX_SIZE);
+                }
+                tasks.add(context.readValue(parser, TaskCreateDTO.class));
+            }
+            return new TaskBatchDTO(tasks);
+        }
+    }
+}
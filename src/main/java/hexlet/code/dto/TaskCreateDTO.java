@@ -2,6 +2,9 @@ package hexlet.code.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
 import java.util.Set;
 
 /**
@@ -17,6 +20,8 @@ public class TaskCreateDTO {
     private Long index;
 
     @JsonProperty("title")
+    @NotBlank(groups = OnCreate.class, message = "Title is required")
+    @Size(max = 255, message = "Title must not exceed 255 characters")
     private String name;
 
     @JsonProperty("content")
@@ -137,4 +142,11 @@ public class TaskCreateDTO {
     public void setTaskLabelIds(Set<Long> taskLabelIds) {
         this.taskLabelIds = taskLabelIds;
     }
+
+    /**
+     * Группа проверок, которые применяются только при создании задачи: при обновлении поля
+     * можно не передавать.
+     */
+    public interface OnCreate {
+    }
 }
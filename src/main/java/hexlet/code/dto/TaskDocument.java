@@ -0,0 +1,17 @@
+package hexlet.code.dto;
+
+import java.util.List;
+
+/**
+ * Поля задачи, по которым строятся индексы задач в памяти процесса.
+ *
+ * @param id           идентификатор задачи
+ * @param name         название задачи
+ * @param description  описание задачи (может быть null)
+ * @param taskStatusId идентификатор статуса
+ * @param assigneeId   идентификатор исполнителя (может быть null)
+ * @param labelIds     идентификаторы меток
+ */
+public record TaskDocument(Long id, String name, String description, Long taskStatusId, Long assigneeId,
+                           List<Long> labelIds) {
+}
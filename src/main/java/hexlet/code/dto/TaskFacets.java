@@ -0,0 +1,21 @@
+package hexlet.code.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Количество задач, соответствующих фильтрам, в разрезе статусов, меток и исполнителей.
+ * Задачи без исполнителя в разрез по исполнителям не попадают.
+ *
+ * @param total     общее количество задач
+ * @param statuses  количество задач по slug статуса
+ * @param labels    количество задач по ID метки
+ * @param assignees количество задач по ID исполнителя
+ */
+public record TaskFacets(
+        long total,
+        Map<String, Long> statuses,
+        Map<Long, Long> labels,
+        @JsonProperty("assignee_id") Map<Long, Long> assignees) {
+}
@@ -0,0 +1,12 @@
+package hexlet.code.dto;
+
+import java.util.List;
+
+/**
+ * Страница списка задач вместе с общим количеством задач, соответствующих фильтрам.
+ *
+ * @param tasks задачи страницы по возрастанию ID
+ * @param total общее количество задач, соответствующих фильтрам
+ */
+public record TaskPage(List<TaskView> tasks, long total) {
+}
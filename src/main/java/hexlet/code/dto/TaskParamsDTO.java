@@ -0,0 +1,127 @@
+package hexlet.code.dto;
+
+import java.util.List;
+
+/**
+ * DTO с параметрами фильтрации списка задач.
+ * Заполняется из query-параметров запроса {@code GET /api/tasks}.
+ */
+public class TaskParamsDTO {
+
+    private String titleCont;
+    private Long assigneeId;
+    private String status;
+    private List<Long> labelId;
+    private String labelMatch;
+
+    /**
+     * Возвращает подстроку для поиска по названию задачи.
+     *
+     * @return подстрока названия или null
+     */
+    public String getTitleCont() {
+        return titleCont;
+    }
+
+    /**
+     * Устанавливает подстроку для поиска по названию задачи.
+     *
+     * @param titleCont подстрока названия
+     */
+    public void setTitleCont(String titleCont) {
+        this.titleCont = titleCont;
+    }
+
+    /**
+     * Возвращает ID исполнителя.
+     *
+     * @return ID исполнителя или null
+     */
+    public Long getAssigneeId() {
+        return assigneeId;
+    }
+
+    /**
+     * Устанавливает ID исполнителя.
+     *
+     * @param assigneeId ID исполнителя
+     */
+    public void setAssigneeId(Long assigneeId) {
+        this.assigneeId = assigneeId;
+    }
+
+    /**
+     * Возвращает slug статуса задачи.
+     *
+     * @return slug статуса или null
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Устанавливает slug статуса задачи.
+     *
+     * @param status slug статуса
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Возвращает ID меток. В запросе передаются через запятую ({@code labelId=1,2,3}) или повтором параметра.
+     *
+     * @return ID меток или null
+     */
+    public List<Long> getLabelId() {
+        return labelId;
+    }
+
+    /**
+     * Устанавливает ID меток.
+     *
+     * @param labelId ID меток
+     */
+    public void setLabelId(List<Long> labelId) {
+        this.labelId = labelId;
+    }
+
+    /**
+     * Возвращает режим фильтра по нескольким меткам: {@code any} (любая из меток, по умолчанию)
+     * или {@code all} (все метки).
+     *
+     * @return режим фильтра по меткам или null
+     */
+    public String getLabelMatch() {
+        return labelMatch;
+    }
+
+    /**
+     * Устанавливает режим фильтра по нескольким меткам.
+     *
+     * @param labelMatch {@code any} или {@code all}
+     */
+    public void setLabelMatch(String labelMatch) {
+        this.labelMatch = labelMatch;
+    }
+
+    /**
+     * Проверяет, должна ли задача иметь все указанные метки.
+     *
+     * @return true для режима {@code all}
+     */
+    public boolean isAllLabelsRequired() {
+        return "all".equalsIgnoreCase(labelMatch);
+    }
+
+    @Override
+    public final String toString() {
+        return "TaskParamsDTO{"
+                + "titleCont='" + titleCont + '\''
+                + ", assigneeId=" + assigneeId
+                + ", status='" + status + '\''
+                + ", labelId=" + labelId
+                + ", labelMatch='" + labelMatch + '\''
+                + '}';
+    }
+}
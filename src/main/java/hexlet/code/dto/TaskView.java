@@ -0,0 +1,51 @@
+package hexlet.code.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Неизменяемое представление задачи для ответов API.
+ * Для чтения заполняется напрямую из запроса (без загрузки сущностей {@link Task}),
+ * для ответов на запись строится из сохранённой сущности через {@link #from(Task)}.
+ *
+ * @param id           идентификатор задачи
+ * @param index        порядковый номер задачи
+ * @param createdAt    дата создания
+ * @param assigneeId   идентификатор исполнителя (может быть null)
+ * @param title        название задачи
+ * @param content      описание задачи
+ * @param status       slug статуса задачи
+ * @param taskLabelIds идентификаторы меток по возрастанию
+ */
+public record TaskView(
+        Long id,
+        Integer index,
+        LocalDate createdAt,
+        @JsonProperty("assignee_id") Long assigneeId,
+        String title,
+        String content,
+        String status,
+        List<Long> taskLabelIds) {
+
+    /**
+     * Строит представление из сущности задачи.
+     *
+     * @param task сущность задачи
+     * @return представление задачи
+     */
+    public static TaskView from(Task task) {
+        return new TaskView(
+                task.getId(),
+                task.getIndex(),
+                task.getCreatedAt(),
+                task.getAssignee() != null ? task.getAssignee().getId() : null,
+                task.getName(),
+                task.getDescription(),
+                task.getTaskStatus() != null ? task.getTaskStatus().getSlug() : null,
+                task.getLabels().stream().map(Label::getId).sorted().toList());
+    }
+}
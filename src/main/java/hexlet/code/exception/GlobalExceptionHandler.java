@@ -1,5 +1,6 @@
 package hexlet.code.exception;
 
+import hexlet.code.config.QueryBudgetExceededException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -32,6 +33,19 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>("Validation error: " + ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Обрабатывает превышение бюджета обращений к БД. Это ошибка сервера, а не запроса:
+     * транзакция уже откачена, клиент может повторить запрос позже.
+     *
+     * @param ex исключение превышения бюджета
+     * @return объект ResponseEntity с сообщением об ошибке и статусом 500 INTERNAL SERVER ERROR
+     */
+    @ExceptionHandler(QueryBudgetExceededException.class)
+    public ResponseEntity<String> handleQueryBudgetExceededException(QueryBudgetExceededException ex) {
+        LOGGER.error("Query budget exceeded: {}", ex.getMessage(), ex);
+        return new ResponseEntity<>("Query budget exceeded", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     /**
      * Обрабатывает исключения времени выполнения (RuntimeException).
      * Используется для обработки ошибок, возникающих во время работы приложения.
@@ -1,6 +1,8 @@
 package hexlet.code.model;
 
+import hexlet.code.service.CollectionVersionListener;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -15,6 +17,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "labels")
+@EntityListeners(CollectionVersionListener.class)
 public class Label {
 
     @Id
@@ -27,7 +30,9 @@ public class Label {
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
-    @ManyToMany(mappedBy = "labels", fetch = FetchType.EAGER)
+    // Задачи метки загружаются только по требованию: список меток и счётчики задач читаются
+    // агрегирующим запросом LabelRepository#findAllWithTaskCounts без загрузки сущностей Task
+    @ManyToMany(mappedBy = "labels", fetch = FetchType.LAZY)
     private Set<Task> tasks = new HashSet<>();
 
     // Конструктор с параметром
@@ -1,14 +1,18 @@
 package hexlet.code.model;
 
+import hexlet.code.service.TaskChangeTracker;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.FetchType;
 import java.time.LocalDate;
@@ -19,11 +23,30 @@ import java.util.Set;
  * Класс Task представляет задачу в системе, которая имеет статус, исполнителя и может быть связана с метками.
  */
 @Entity
-@Table(name = "tasks")
+@EntityListeners(TaskChangeTracker.class)
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_assignee_id_id", columnList = "assignee_id, id"),
+    @Index(name = "idx_tasks_task_status_id_id", columnList = "task_status_id, id")
+})
 public final class Task {
 
+    /**
+     * Имя последовательности идентификаторов задач.
+     */
+    public static final String ID_SEQUENCE = "tasks_seq";
+
+    /**
+     * Шаг последовательности: Hibernate резервирует столько идентификаторов за одно обращение к БД.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Идентификаторы выдаются последовательностью (а не IDENTITY), чтобы вставки задач
+     * можно было отправлять в БД пакетами JDBC.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_id_generator")
+    @SequenceGenerator(name = "tasks_id_generator", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private Integer index;
@@ -47,14 +70,15 @@ public final class Task {
 
     /**
      * Метки задачи.
-     * Используется FetchType.EAGER для автоматической подгрузки данных.
-     * Внимание: EAGER может повлиять на производительность при работе с большими наборами данных.
+     * Загружаются лениво: списки задач читают ID меток отдельным запросом,
+     * а для полной сущности есть TaskRepository#findTaskWithLabelsById.
      */
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "task_labels",
             joinColumns = @JoinColumn(name = "task_id"),
-            inverseJoinColumns = @JoinColumn(name = "label_id")
+            inverseJoinColumns = @JoinColumn(name = "label_id"),
+            indexes = @Index(name = "idx_task_labels_label_id_task_id", columnList = "label_id, task_id")
     )
     private Set<Label> labels = new HashSet<>();
 
@@ -1,8 +1,11 @@
 package hexlet.code.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import hexlet.code.service.CollectionVersionListener;
+import hexlet.code.service.TaskStatusRegistryListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -16,6 +19,7 @@ import java.time.Instant;
  */
 @Entity
 @Table(name = "task_statuses")
+@EntityListeners({TaskStatusRegistryListener.class, CollectionVersionListener.class})
 public class TaskStatus {
 
     @Id
@@ -49,6 +53,22 @@ public class TaskStatus {
         this.slug = slug;
     }
 
+    /**
+     * Конструктор копии статуса, не связанной с контекстом персистентности (для JPQL-выражения
+     * {@code SELECT new}).
+     *
+     * @param id        идентификатор статуса
+     * @param name      название статуса
+     * @param slug      уникальный идентификатор статуса
+     * @param createdAt дата создания статуса
+     */
+    public TaskStatus(Long id, String name, String slug, Instant createdAt) {
+        this.id = id;
+        this.name = name;
+        this.slug = slug;
+        this.createdAt = createdAt;
+    }
+
     /**
      * Устанавливает дату создания статуса перед сохранением.
      */
@@ -1,7 +1,9 @@
 package hexlet.code.model;
 
+import hexlet.code.service.CollectionVersionListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -25,6 +27,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "users")
+@EntityListeners(CollectionVersionListener.class)
 public final class User {
 
     @Id
@@ -0,0 +1,83 @@
+package hexlet.code.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Работа с последовательностями базы данных в обход Hibernate.
+ * SQL для конкретной СУБД (H2, PostgreSQL) берётся из диалекта Hibernate.
+ */
+@Component
+public class DatabaseSequences {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseSequences.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+    private final TransactionTemplate newTransaction;
+
+    public DatabaseSequences(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                             PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Создаёт последовательность, если её нет, и гарантирует, что следующее выданное ею значение
+     * будет не меньше {@code minNextValue}. Выполняется в отдельной транзакции, чтобы откат
+     * вызывающей транзакции не отменил DDL.
+     *
+     * @param name имя последовательности
+     * @param minNextValue минимально допустимое следующее значение
+     * @param increment шаг последовательности
+     */
+    public void ensureSequence(String name, long minNextValue, int increment) {
+        newTransaction.executeWithoutResult(status -> {
+            if (!exists(name)) {
+                LOGGER.info("Creating sequence {} starting with {}", name, minNextValue);
+                jdbcTemplate.execute(dialect.getSequenceSupport()
+                        .getCreateSequenceString(name, Math.toIntExact(minNextValue), increment));
+                return;
+            }
+            long next = nextValue(name);
+            if (next < minNextValue) {
+                LOGGER.warn("Sequence {} is behind existing data ({} < {}), restarting it", name, next, minNextValue);
+                jdbcTemplate.execute("ALTER SEQUENCE " + name + " RESTART WITH " + minNextValue);
+            }
+        });
+    }
+
+    /**
+     * Возвращает следующее значение последовательности.
+     *
+     * @param name имя последовательности
+     * @return следующее значение
+     */
+    public long nextValue(String name) {
+        Long value = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(name), Long.class);
+        if (value == null) {
+            throw new IllegalStateException("Sequence " + name + " returned no value");
+        }
+        return value;
+    }
+
+    private boolean exists(String name) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.sequences WHERE LOWER(sequence_name) = ?",
+                Integer.class, name.toLowerCase());
+        return count != null && count > 0;
+    }
+}
@@ -1,15 +1,37 @@
 package hexlet.code.repository;
 
+import hexlet.code.dto.LabelDTO;
 import hexlet.code.model.Label;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface LabelRepository extends JpaRepository<Label, Long> {
 
-    @EntityGraph(attributePaths = "tasks")  // Подгружаем связанные задачи
-    Optional<Label> findById(Long id);
-
     Optional<Label> findByName(String name);
+
+    /**
+     * Возвращает все метки с количеством связанных задач одним агрегирующим запросом.
+     * Сущности Task при этом не загружаются.
+     *
+     * @return метки с количеством задач, упорядоченные по ID
+     */
+    @Query("SELECT new hexlet.code.dto.LabelDTO(l.id, l.name, l.createdAt, COUNT(t.id)) "
+            + "FROM Label l LEFT JOIN l.tasks t "
+            + "GROUP BY l.id, l.name, l.createdAt "
+            + "ORDER BY l.id")
+    List<LabelDTO> findAllWithTaskCounts();
+
+    /**
+     * Возвращает те из переданных ID, для которых существуют метки. Сами метки не загружаются.
+     *
+     * @param ids ID меток
+     * @return существующие ID
+     */
+    @Query("SELECT l.id FROM Label l WHERE l.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -11,4 +11,28 @@ public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositor
 
     @Query("SELECT t FROM Task t LEFT JOIN FETCH t.labels WHERE t.id = :id")
     Optional<Task> findTaskWithLabelsById(@Param("id") Long id);
+
+    /**
+     * Проверяет, есть ли хотя бы одна задача с указанной меткой.
+     * Выполняется как запрос с LIMIT 1 по индексу task_labels(label_id, task_id), задачи не загружаются.
+     *
+     * @param labelId ID метки
+     * @return true если метка используется задачами
+     */
+    boolean existsByLabelsId(Long labelId);
+
+    /**
+     * Проверяет, есть ли хотя бы одна задача с указанным статусом.
+     * Выполняется как запрос с LIMIT 1 по индексу tasks(task_status_id, id), задачи не загружаются.
+     *
+     * @param taskStatusId ID статуса
+     * @return true если статус используется задачами
+     */
+    boolean existsByTaskStatusId(Long taskStatusId);
+
+    @Query("SELECT COALESCE(MAX(t.index), 0) FROM Task t")
+    int findMaxIndex();
+
+    @Query("SELECT COALESCE(MAX(t.id), 0) FROM Task t")
+    long findMaxId();
 }
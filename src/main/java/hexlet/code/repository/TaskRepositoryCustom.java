@@ -1,9 +1,30 @@
 package hexlet.code.repository;
 
-import hexlet.code.model.Task;
+import hexlet.code.dto.TaskDocument;
+import hexlet.code.dto.TaskFacets;
+import hexlet.code.dto.TaskParamsDTO;
+import hexlet.code.dto.TaskView;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TaskRepositoryCustom {
-    List<Task> findTasksByFilters(String titleCont, Long assigneeId, String status, Long labelId);
+
+    List<TaskView> findTasksByFilters(TaskParamsDTO params, long after, int limit);
+
+    long countTasksByFilters(TaskParamsDTO params);
+
+    TaskFacets countFacetsByFilters(TaskParamsDTO params);
+
+
+    Optional<TaskView> findTaskViewById(Long id);
+
+    List<TaskView> findTaskViewsByIds(List<Long> ids);
+
+    List<TaskView> searchTaskViews(List<String> terms, int limit);
+
+    List<TaskDocument> findDocumentsAfter(long after, int limit);
+
+    List<TaskDocument> findDocumentsByIds(Collection<Long> ids);
 }
@@ -1,60 +1,363 @@
 package hexlet.code.repository;
 
+import hexlet.code.dto.TaskDocument;
+import hexlet.code.dto.TaskFacets;
+import hexlet.code.dto.TaskParamsDTO;
+import hexlet.code.dto.TaskView;
 import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.AbstractQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
 
 public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
 
+    // Внешние ключи читаются без соединения со статусами и пользователями
+    private static final String DOCUMENT_SELECT =
+            "SELECT t.id, t.name, t.description, t.taskStatus.id, t.assignee.id FROM Task t ";
+
+    private static final char LIKE_ESCAPE = '\\';
+
     @PersistenceContext
     private EntityManager entityManager;
 
     /**
      * Метод для поиска задач с фильтрацией по названию, исполнителю, статусу и метке.
+     * Возвращает проекции {@link TaskView}: выбираются только нужные колонки одной страницы,
+     * а идентификаторы меток дочитываются вторым запросом по ID этой страницы.
+     * Сущности {@link Task} не загружаются и контекст персистентности не растёт.
+     *
+     * @param params параметры фильтрации (любой из них может быть null)
+     * @param after идентификатор последней задачи предыдущей страницы
+     * @param limit максимальное количество задач
+     * @return список задач, соответствующих указанным фильтрам, по возрастанию ID
+     */
+    @Override
+    public List<TaskView> findTasksByFilters(TaskParamsDTO params, long after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> taskRoot = query.from(Task.class);
+        Join<Task, TaskStatus> statusJoin = taskRoot.join("taskStatus");
+
+        List<Predicate> predicates = buildPredicates(cb, query, taskRoot, statusJoin, params);
+        predicates.add(cb.greaterThan(taskRoot.<Long>get("id"), after));
+
+        query.multiselect(viewSelections(taskRoot, statusJoin))
+                .where(cb.and(predicates.toArray(new Predicate[0])))
+                .orderBy(cb.asc(taskRoot.get("id")));
+
+        return toViews(entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    /**
+     * Подсчитывает количество задач, соответствующих фильтрам, без загрузки сущностей.
+     *
+     * @param params параметры фильтрации
+     * @return количество задач
+     */
+    @Override
+    public long countTasksByFilters(TaskParamsDTO params) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Task> taskRoot = query.from(Task.class);
+        Join<Task, TaskStatus> statusJoin = taskRoot.join("taskStatus");
+
+        List<Predicate> predicates = buildPredicates(cb, query, taskRoot, statusJoin, params);
+        query.select(cb.count(taskRoot))
+                .where(cb.and(predicates.toArray(new Predicate[0])));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Подсчитывает задачи, соответствующие фильтрам, в разрезе статусов, меток и исполнителей.
+     * Каждый разрез - отдельный запрос с GROUP BY по тем же фильтрам; сущности не загружаются.
+     *
+     * @param params параметры фильтрации
+     * @return количество задач по разрезам
+     */
+    @Override
+    public TaskFacets countFacetsByFilters(TaskParamsDTO params) {
+        Map<String, Long> statuses = new TreeMap<>();
+        countGrouped(params, (taskRoot, statusJoin) -> statusJoin.get("slug"))
+                .forEach(row -> statuses.put(row.get(0, String.class), row.get(1, Long.class)));
+
+        Map<Long, Long> labels = new TreeMap<>();
+        countGrouped(params, (taskRoot, statusJoin) -> taskRoot.join("labels").get("id"))
+                .forEach(row -> labels.put(row.get(0, Long.class), row.get(1, Long.class)));
+
+        // Задачи без исполнителя отсекаются внутренним соединением
+        Map<Long, Long> assignees = new TreeMap<>();
+        countGrouped(params, (taskRoot, statusJoin) -> taskRoot.join("assignee").get("id"))
+                .forEach(row -> assignees.put(row.get(0, Long.class), row.get(1, Long.class)));
+
+        return new TaskFacets(countTasksByFilters(params), statuses, labels, assignees);
+    }
+
+    /**
+     * Возвращает проекцию одной задачи без загрузки сущности.
+     *
+     * @param id идентификатор задачи
+     * @return проекция задачи, если она найдена
+     */
+    @Override
+    public Optional<TaskView> findTaskViewById(Long id) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> taskRoot = query.from(Task.class);
+        Join<Task, TaskStatus> statusJoin = taskRoot.join("taskStatus");
+
+        query.multiselect(viewSelections(taskRoot, statusJoin))
+                .where(cb.equal(taskRoot.get("id"), id));
+
+        return toViews(entityManager.createQuery(query).getResultList()).stream().findFirst();
+    }
+
+    /**
+     * Возвращает проекции задач по списку ID в порядке этого списка (например, по релевантности).
+     * Отсутствующие задачи пропускаются.
      *
-     * @param titleCont часть названия задачи для поиска (может быть null)
-     * @param assigneeId идентификатор исполнителя (может быть null)
-     * @param status название статуса задачи (может быть null)
-     * @param labelId идентификатор метки (может быть null)
-     * @return список задач, соответствующих указанным фильтрам
+     * @param ids идентификаторы задач
+     * @return проекции задач в порядке {@code ids}
      */
     @Override
-    public List<Task> findTasksByFilters(String titleCont, Long assigneeId, String status, Long labelId) {
+    public List<TaskView> findTaskViewsByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
         Root<Task> taskRoot = query.from(Task.class);
+        Join<Task, TaskStatus> statusJoin = taskRoot.join("taskStatus");
+
+        query.multiselect(viewSelections(taskRoot, statusJoin))
+                .where(taskRoot.get("id").in(ids));
+
+        Map<Long, TaskView> byId = new HashMap<>();
+        toViews(entityManager.createQuery(query).getResultList()).forEach(view -> byId.put(view.id(), view));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Поиск задач в БД по словам в названии или описании, без ранжирования.
+     * Используется, когда индекс поиска в памяти недоступен (строится или не видит изменений
+     * текущей транзакции). Каждое слово должно входить в название или описание задачи.
+     *
+     * @param terms слова запроса в нижнем регистре
+     * @param limit максимальное количество задач
+     * @return найденные задачи по возрастанию ID
+     */
+    @Override
+    public List<TaskView> searchTaskViews(List<String> terms, int limit) {
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> taskRoot = query.from(Task.class);
+        Join<Task, TaskStatus> statusJoin = taskRoot.join("taskStatus");
 
         List<Predicate> predicates = new ArrayList<>();
+        for (String term : terms) {
+            String pattern = containsPattern(term);
+            predicates.add(cb.or(
+                    cb.like(cb.lower(taskRoot.get("name")), pattern, LIKE_ESCAPE),
+                    cb.like(cb.lower(taskRoot.get("description")), pattern, LIKE_ESCAPE)));
+        }
+
+        query.multiselect(viewSelections(taskRoot, statusJoin))
+                .where(cb.and(predicates.toArray(new Predicate[0])))
+                .orderBy(cb.asc(taskRoot.get("id")));
+
+        return toViews(entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    /**
+     * Возвращает поля задач с ID больше указанного для построения индексов в памяти, по возрастанию ID.
+     *
+     * @param after ID последней задачи предыдущей порции
+     * @param limit размер порции
+     * @return поля задач
+     */
+    @Override
+    public List<TaskDocument> findDocumentsAfter(long after, int limit) {
+        return toDocuments(entityManager.createQuery(DOCUMENT_SELECT + "WHERE t.id > :after ORDER BY t.id",
+                        Object[].class)
+                .setParameter("after", after)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    /**
+     * Возвращает поля задач по ID для обновления индексов в памяти.
+     *
+     * @param ids ID задач
+     * @return поля найденных задач
+     */
+    @Override
+    public List<TaskDocument> findDocumentsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return toDocuments(entityManager.createQuery(DOCUMENT_SELECT + "WHERE t.id IN :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    private List<TaskDocument> toDocuments(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Long>> labelIds = findLabelIds(rows.stream().map(row -> (Long) row[0]).toList());
+        return rows.stream()
+                .map(row -> new TaskDocument(
+                        (Long) row[0],
+                        (String) row[1],
+                        (String) row[2],
+                        (Long) row[3],
+                        (Long) row[4],
+                        labelIds.getOrDefault((Long) row[0], List.of())))
+                .toList();
+    }
+
+    private List<Tuple> countGrouped(TaskParamsDTO params,
+                                     BiFunction<Root<Task>, Join<Task, TaskStatus>, Expression<?>> groupKey) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> taskRoot = query.from(Task.class);
+        Join<Task, TaskStatus> statusJoin = taskRoot.join("taskStatus");
+
+        List<Predicate> predicates = buildPredicates(cb, query, taskRoot, statusJoin, params);
+        Expression<?> key = groupKey.apply(taskRoot, statusJoin);
+        query.multiselect(key, cb.count(taskRoot))
+                .where(cb.and(predicates.toArray(new Predicate[0])))
+                .groupBy(key);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private List<Selection<?>> viewSelections(Root<Task> taskRoot, Join<Task, TaskStatus> statusJoin) {
+        return List.of(
+                taskRoot.get("id"),
+                taskRoot.get("index"),
+                taskRoot.get("createdAt"),
+                taskRoot.get("assignee").get("id"), // читается из внешнего ключа, без соединения с users
+                taskRoot.get("name"),
+                taskRoot.get("description"),
+                statusJoin.get("slug"));
+    }
+
+    private List<TaskView> toViews(List<Tuple> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<Long>> labelIds = findLabelIds(rows.stream().map(row -> row.get(0, Long.class)).toList());
+
+        return rows.stream()
+                .map(row -> new TaskView(
+                        row.get(0, Long.class),
+                        row.get(1, Integer.class),
+                        row.get(2, LocalDate.class),
+                        row.get(3, Long.class),
+                        row.get(4, String.class),
+                        row.get(5, String.class),
+                        row.get(6, String.class),
+                        labelIds.getOrDefault(row.get(0, Long.class), List.of())))
+                .toList();
+    }
+
+    private Map<Long, List<Long>> findLabelIds(List<Long> taskIds) {
+        Map<Long, List<Long>> labelIds = new HashMap<>();
+        entityManager.createQuery("SELECT t.id, l.id FROM Task t JOIN t.labels l "
+                        + "WHERE t.id IN :ids ORDER BY l.id", Object[].class)
+                .setParameter("ids", taskIds)
+                .getResultList()
+                .forEach(pair -> labelIds.computeIfAbsent((Long) pair[0], key -> new ArrayList<>())
+                        .add((Long) pair[1]));
+        return labelIds;
+    }
+
+    private List<Predicate> buildPredicates(CriteriaBuilder cb, AbstractQuery<?> query, Root<Task> taskRoot,
+                                            Join<Task, TaskStatus> statusJoin, TaskParamsDTO params) {
+        List<Predicate> predicates = new ArrayList<>();
 
         // Фильтр по названию
+        String titleCont = params.getTitleCont();
         if (titleCont != null && !titleCont.isEmpty()) {
-            predicates.add(cb.like(cb.lower(taskRoot.get("name")), "%" + titleCont.toLowerCase() + "%"));
+            predicates.add(cb.like(cb.lower(taskRoot.get("name")), containsPattern(titleCont), LIKE_ESCAPE));
         }
 
-        // Фильтр по исполнителю
-        if (assigneeId != null) {
-            predicates.add(cb.equal(taskRoot.get("assignee").get("id"), assigneeId));
+        // Фильтр по исполнителю (индекс tasks(assignee_id, id))
+        if (params.getAssigneeId() != null) {
+            predicates.add(cb.equal(taskRoot.get("assignee").get("id"), params.getAssigneeId()));
         }
 
-        // Фильтр по статусу задачи
+        // Фильтр по статусу задачи (индекс tasks(task_status_id, id))
+        String status = params.getStatus();
         if (status != null && !status.isEmpty()) {
-            predicates.add(cb.equal(taskRoot.get("taskStatus").get("name"), status));
+            predicates.add(cb.equal(statusJoin.get("slug"), status));
         }
 
-        // Фильтр по метке
-        if (labelId != null) {
-            predicates.add(cb.isMember(labelId, taskRoot.get("labels")));
+        // Фильтр по меткам (индекс task_labels(label_id, task_id)). Пара задача-метка уникальна,
+        // поэтому соединение с равенством по одной метке не размножает строки
+        List<Long> labelIds = params.getLabelId();
+        if (labelIds != null && !labelIds.isEmpty()) {
+            if (labelIds.size() == 1 || params.isAllLabelsRequired()) {
+                for (Long labelId : labelIds) {
+                    predicates.add(cb.equal(taskRoot.join("labels").get("id"), labelId));
+                }
+            } else {
+                Subquery<Long> labelled = query.subquery(Long.class);
+                Root<Task> labelledTask = labelled.from(Task.class);
+                labelled.select(labelledTask.<Long>get("id"))
+                        .where(cb.equal(labelledTask, taskRoot),
+                                labelledTask.join("labels").get("id").in(labelIds));
+                predicates.add(cb.exists(labelled));
+            }
         }
 
-        query.where(cb.and(predicates.toArray(new Predicate[0])));
+        return predicates;
+    }
 
-        return entityManager.createQuery(query).getResultList();
+    // Шаблон LIKE для поиска подстроки: символы %, _ и \ ищутся буквально, а регистр приводится
+    // так же, как в индексах в памяти процесса, чтобы БД и индексы находили одни и те же задачи
+    private static String containsPattern(String fragment) {
+        StringBuilder pattern = new StringBuilder(fragment.length() + 2).append('%');
+        for (char c : fragment.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
     }
 }
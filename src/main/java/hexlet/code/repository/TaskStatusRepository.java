@@ -2,7 +2,11 @@ package hexlet.code.repository;
 
 import hexlet.code.model.TaskStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface TaskStatusRepository extends JpaRepository<TaskStatus, Long> {
@@ -14,4 +18,22 @@ public interface TaskStatusRepository extends JpaRepository<TaskStatus, Long> {
     boolean existsBySlug(String slug);
 
     Optional<TaskStatus> findBySlugIgnoreCase(String slug);
+
+    /**
+     * Ищет статусы по набору slug без учёта регистра одним запросом.
+     *
+     * @param slugs slug статусов в нижнем регистре
+     * @return найденные статусы
+     */
+    @Query("SELECT s FROM TaskStatus s WHERE LOWER(s.slug) IN :slugs")
+    List<TaskStatus> findAllBySlugLowerIn(@Param("slugs") Collection<String> slugs);
+
+    /**
+     * Загружает все статусы в виде копий, не связанных с контекстом персистентности: их можно
+     * разделять между потоками, не опасаясь изменений в чужой транзакции.
+     *
+     * @return все статусы
+     */
+    @Query("SELECT new hexlet.code.model.TaskStatus(s.id, s.name, s.slug, s.createdAt) FROM TaskStatus s")
+    List<TaskStatus> findAllDetached();
 }
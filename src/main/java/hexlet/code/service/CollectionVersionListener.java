@@ -0,0 +1,42 @@
+package hexlet.code.service;
+
+import hexlet.code.model.Label;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA-слушатель меток, статусов и пользователей: отмечает их коллекции изменёнными в {@link CollectionVersions}
+ * при любой записи, в том числе в обход сервисов. Изменения задач отмечает {@link TaskChangeTracker}.
+ */
+@Component
+public final class CollectionVersionListener {
+
+    private final CollectionVersions collectionVersions;
+
+    public CollectionVersionListener(CollectionVersions collectionVersions) {
+        this.collectionVersions = collectionVersions;
+    }
+
+    /**
+     * Отмечает коллекцию сущности изменённой при создании, изменении или удалении.
+     * Slug статуса входит в ответы по задачам, поэтому изменение статуса меняет и версию задач.
+     *
+     * @param entity изменяемая сущность
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Label) {
+            collectionVersions.markChanged(VersionedCollection.LABELS);
+        } else if (entity instanceof TaskStatus) {
+            collectionVersions.markChanged(VersionedCollection.TASK_STATUSES, VersionedCollection.TASKS);
+        } else if (entity instanceof User) {
+            collectionVersions.markChanged(VersionedCollection.USERS);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package hexlet.code.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Монотонно растущие счётчики версий коллекций API. Версия коллекции увеличивается после фиксации
+ * каждой транзакции, изменившей её данные, и служит строгим ETag для GET-запросов к коллекции
+ * и её элементам.
+ * <p>
+ * Счётчики живут в памяти процесса, поэтому в ETag входит идентификатор запуска: после перезапуска
+ * ETag не совпадёт со старым и клиент получит полный ответ. Версии растут только от записей своего
+ * экземпляра приложения: при нескольких экземплярах клиент с ETag экземпляра B продолжит получать
+ * от B ответ 304 и после записей на экземпляре A, пока у B нет своих записей. Поэтому ETag годятся лишь
+ * для развёртывания с одним экземпляром; при нескольких экземплярах, а также если данные изменяются
+ * в БД в обход приложения, их нужно отключить свойством {@code app.conditional-get.enabled=false}.
+ * </p>
+ * <p>
+ * Для каждой коллекции запоминается и время последнего изменения: по нему
+ * {@link hexlet.code.config.ReplicaRoutingDataSource} решает, успела ли реплика получить данные,
+ * соответствующие текущему ETag.
+ * </p>
+ * <p>
+ * После фиксации изменений публикуется {@link CollectionsChangedEvent}: по нему
+ * {@link hexlet.code.config.RecentWriters} отмечает пользователя, который действительно изменил данные.
+ * </p>
+ */
+@Component
+public final class CollectionVersions {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final String epoch = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+    private final Map<VersionedCollection, AtomicLong> versions = new EnumMap<>(VersionedCollection.class);
+    private final Map<VersionedCollection, AtomicLong> changedAt = new EnumMap<>(VersionedCollection.class);
+
+    public CollectionVersions(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+        // До первого изменения считаем коллекции изменёнными при запуске: данные могли меняться
+        // незадолго до него, и реплики ещё не получили эти изменения
+        long startedAt = System.currentTimeMillis();
+        for (VersionedCollection collection : VersionedCollection.values()) {
+            versions.put(collection, new AtomicLong());
+            changedAt.put(collection, new AtomicLong(startedAt));
+        }
+    }
+
+    /**
+     * Возвращает текущую версию коллекции.
+     *
+     * @param collection коллекция
+     * @return номер версии
+     */
+    public long getVersion(VersionedCollection collection) {
+        return versions.get(collection).get();
+    }
+
+    /**
+     * Возвращает время последнего изменения коллекции (или запуска приложения, если изменений не было).
+     *
+     * @param collection коллекция
+     * @return время фиксации последнего изменения
+     */
+    public Instant getChangedAt(VersionedCollection collection) {
+        return Instant.ofEpochMilli(changedAt.get(collection).get());
+    }
+
+    /**
+     * Возвращает строгий ETag текущей версии коллекции (в кавычках).
+     *
+     * @param collection коллекция
+     * @return значение заголовка ETag
+     */
+    public String getETag(VersionedCollection collection) {
+        return "\"" + collection.name().toLowerCase(Locale.ROOT) + "-" + epoch + "-" + getVersion(collection) + "\"";
+    }
+
+    /**
+     * Отмечает коллекции изменёнными в текущей транзакции. Версии увеличиваются после её фиксации,
+     * а при откате остаются прежними. Вне транзакции версии увеличиваются сразу.
+     *
+     * @param collections изменённые коллекции
+     */
+    public void markChanged(VersionedCollection... collections) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            for (VersionedCollection collection : collections) {
+                increment(collection);
+            }
+            eventPublisher.publishEvent(new CollectionsChangedEvent(Set.of(collections)));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<VersionedCollection> changed =
+                (Set<VersionedCollection>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<VersionedCollection> pending = EnumSet.noneOf(VersionedCollection.class);
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.forEach(CollectionVersions.this::increment);
+                    eventPublisher.publishEvent(new CollectionsChangedEvent(Set.copyOf(pending)));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CollectionVersions.this);
+                }
+            });
+            changed = pending;
+        }
+        changed.addAll(Set.of(collections));
+    }
+
+    // Время изменения обновляется раньше версии: тот, кто увидел новый ETag, увидит и новое время
+    private void increment(VersionedCollection collection) {
+        changedAt.get(collection).set(System.currentTimeMillis());
+        versions.get(collection).incrementAndGet();
+    }
+}
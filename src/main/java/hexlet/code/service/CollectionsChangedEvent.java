@@ -0,0 +1,12 @@
+package hexlet.code.service;
+
+import java.util.Set;
+
+/**
+ * Событие о зафиксированных изменениях коллекций API. Публикуется после фиксации транзакции в потоке,
+ * который её выполнял, поэтому слушатели видят контекст запроса, изменившего данные.
+ *
+ * @param collections изменённые коллекции
+ */
+public record CollectionsChangedEvent(Set<VersionedCollection> collections) {
+}
@@ -3,13 +3,14 @@ package hexlet.code.service;
 import hexlet.code.dto.LabelDTO;
 import hexlet.code.model.Label;
 import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Сервис для управления метками.
@@ -20,15 +21,16 @@ public class LabelService {
     @Autowired
     private LabelRepository labelRepository;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
     /**
      * Получает список всех меток.
      *
      * @return Список DTO меток.
      */
     public List<LabelDTO> getAllLabels() {
-        return labelRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return labelRepository.findAllWithTaskCounts();
     }
 
     /**
@@ -79,13 +81,16 @@ public class LabelService {
      * @param id Идентификатор метки.
      * @throws RuntimeException Если метка не найдена или связана с задачами.
      */
+    @Transactional
     public void deleteLabel(Long id) {
-        Label label = labelRepository.findById(id).orElseThrow(() ->
-                new RuntimeException("Метка не найдена"));
-        if (!label.getTasks().isEmpty()) {
+        if (!labelRepository.existsById(id)) {
+            throw new RuntimeException("Метка не найдена");
+        }
+        // Проверка запросом EXISTS, связанные задачи не загружаются
+        if (taskRepository.existsByLabelsId(id)) {
             throw new RuntimeException("Нельзя удалить метку, она связана с задачами.");
         }
-        labelRepository.delete(label);
+        labelRepository.deleteById(id);
     }
 
     /**
@@ -0,0 +1,103 @@
+package hexlet.code.service;
+
+import hexlet.code.util.ExpiringLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Кэш аутентифицированных пользователей по email для {@link hexlet.code.config.JWTAuthenticationFilter}.
+ * Токен уже проверен подписью, поэтому на каждый запрос не нужно заново читать пользователя и роли из БД.
+ * Размер и время жизни записей задаются свойствами {@code app.security.principal-cache.*}.
+ * В кэше хранятся данные без пароля. Попадания и промахи публикуются в метрике
+ * {@code principal.cache.requests} (см. {@link hexlet.code.config.MetricsConfig}).
+ */
+@Component
+public final class PrincipalCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private final ExpiringLruCache<String, UserDetails> cache;
+    private final UserDetailsServiceImpl userDetailsService;
+
+    public PrincipalCache(UserDetailsServiceImpl userDetailsService,
+                          @Value("${app.security.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${app.security.principal-cache.ttl:5m}") Duration ttl) {
+        this.userDetailsService = userDetailsService;
+        this.cache = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Возвращает данные пользователя из кэша или загружает их через {@link UserDetailsServiceImpl}.
+     *
+     * @param email email пользователя
+     * @return данные пользователя без пароля
+     */
+    public UserDetails getUser(String email) {
+        return cache.get(email, key -> withoutPassword(userDetailsService.loadUserByUsername(key)));
+    }
+
+    /**
+     * Удаляет пользователя из кэша сразу и ещё раз после фиксации текущей транзакции,
+     * чтобы параллельный запрос не успел закэшировать старые данные.
+     *
+     * @param email email пользователя
+     */
+    public void evict(String email) {
+        cache.evict(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(email);
+                }
+            });
+        }
+        LOGGER.debug("Evicted principal {} (hits: {}, misses: {})", email, hitCount(), missCount());
+    }
+
+    /**
+     * Возвращает количество попаданий в кэш.
+     *
+     * @return количество попаданий
+     */
+    public long hitCount() {
+        return cache.hitCount();
+    }
+
+    /**
+     * Возвращает количество промахов кэша.
+     *
+     * @return количество промахов
+     */
+    public long missCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * Возвращает текущее количество пользователей в кэше.
+     *
+     * @return размер кэша
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private UserDetails withoutPassword(UserDetails userDetails) {
+        return User.withUsername(userDetails.getUsername())
+                .password("")
+                .authorities(userDetails.getAuthorities())
+                .accountExpired(!userDetails.isAccountNonExpired())
+                .accountLocked(!userDetails.isAccountNonLocked())
+                .credentialsExpired(!userDetails.isCredentialsNonExpired())
+                .disabled(!userDetails.isEnabled())
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package hexlet.code.service;
+
+import hexlet.code.model.Task;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JPA-слушатель сущности {@link Task}: собирает ID задач, изменённых в текущей транзакции,
+ * и после её фиксации публикует {@link TaskChangedEvent} для индексов в памяти процесса.
+ * <p>
+ * Пока транзакция не завершена, {@link #hasUncommittedChanges()} возвращает true: такая транзакция
+ * должна читать задачи из БД, потому что индексы содержат только зафиксированные данные.
+ * </p>
+ */
+@Component
+public final class TaskChangeTracker {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final CollectionVersions collectionVersions;
+
+    public TaskChangeTracker(ApplicationEventPublisher eventPublisher, CollectionVersions collectionVersions) {
+        this.eventPublisher = eventPublisher;
+        this.collectionVersions = collectionVersions;
+    }
+
+    /**
+     * Отмечает задачу изменённой при создании, изменении или удалении.
+     *
+     * @param task изменяемая задача
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Task task) {
+        markChanged(task.getId());
+    }
+
+    /**
+     * Отмечает задачу изменённой в текущей транзакции. Нужен там, где JPA не вызывает слушатель,
+     * например при изменении только меток задачи (коллекции, а не полей сущности).
+     *
+     * @param taskId идентификатор задачи
+     */
+    public void markChanged(Long taskId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(new TaskChangedEvent(Set.of(taskId)));
+            markCollectionsChanged();
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Long> changedIds = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (changedIds == null) {
+            Set<Long> ids = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(new TaskChangedEvent(Set.copyOf(ids)));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TaskChangeTracker.this);
+                }
+            });
+            changedIds = ids;
+        }
+        changedIds.add(taskId);
+        // Регистрируется после синхронизации выше: версии растут, когда индексы уже обновлены
+        markCollectionsChanged();
+    }
+
+    // Метки отдаются вместе с количеством задач, поэтому изменение задачи меняет и их версию
+    private void markCollectionsChanged() {
+        collectionVersions.markChanged(VersionedCollection.TASKS, VersionedCollection.LABELS);
+    }
+
+    /**
+     * Проверяет, изменяла ли текущая транзакция задачи.
+     *
+     * @return true если в текущей транзакции есть незафиксированные изменения задач
+     */
+    public boolean hasUncommittedChanges() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+}
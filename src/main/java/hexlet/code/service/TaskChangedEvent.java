@@ -0,0 +1,12 @@
+package hexlet.code.service;
+
+import java.util.Set;
+
+/**
+ * Событие о зафиксированных изменениях задач: создании, изменении или удалении.
+ * Публикуется после фиксации транзакции, поэтому слушатели видят уже зафиксированное состояние.
+ *
+ * @param taskIds идентификаторы изменённых задач
+ */
+public record TaskChangedEvent(Set<Long> taskIds) {
+}
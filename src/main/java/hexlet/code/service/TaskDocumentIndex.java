@@ -0,0 +1,26 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskDocument;
+
+import java.util.Collection;
+
+/**
+ * Индекс задач в памяти процесса, который заполняет и обновляет {@link TaskIndexMaintainer}.
+ */
+public interface TaskDocumentIndex {
+
+    /**
+     * Наибольший ID задачи, который можно проиндексировать: индексы хранят ID в 32-битных битовых множествах.
+     * Если в БД есть задачи с большими ID, {@link TaskIndexMaintainer} отключает индексы.
+     */
+    long MAX_TASK_ID = Integer.MAX_VALUE;
+
+    /**
+     * Удаляет задачи с указанными ID из индекса и индексирует переданные версии задач.
+     * Задачи из {@code ids}, для которых нет документа, были удалены.
+     *
+     * @param ids       ID изменённых задач
+     * @param documents текущие версии существующих задач
+     */
+    void update(Collection<Long> ids, Collection<TaskDocument> documents);
+}
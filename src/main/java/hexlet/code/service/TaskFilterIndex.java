@@ -0,0 +1,193 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskDocument;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Вторичные индексы задач в памяти процесса для фильтров по статусу, исполнителю и меткам.
+ * <p>
+ * Каждому ID статуса, исполнителя и метки соответствует сжатое битовое множество (RoaringBitmap)
+ * ID задач, поэтому сочетание фильтров сводится к пересечению и объединению множеств без запросов к БД.
+ * ID задач хранятся как 32-битные числа.
+ * </p>
+ * <p>
+ * Индекс заполняет и обновляет {@link TaskIndexMaintainer}; использовать его результаты можно,
+ * только пока {@link TaskIndexMaintainer#isAvailable()} возвращает true.
+ * </p>
+ */
+@Component
+public final class TaskFilterIndex implements TaskDocumentIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap allTasks = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byStatus = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byAssignee = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byLabel = new HashMap<>();
+    private final Map<Integer, Membership> memberships = new HashMap<>();
+
+    /**
+     * Удаляет задачи из индекса и индексирует их новые версии.
+     *
+     * @param ids       ID изменённых задач
+     * @param documents текущие версии существующих задач
+     */
+    @Override
+    public void update(Collection<Long> ids, Collection<TaskDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(id -> remove(Math.toIntExact(id)));
+            documents.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает ID задач, соответствующих всем заданным фильтрам. Фильтры со значением null не применяются.
+     *
+     * @param taskStatusId ID статуса
+     * @param assigneeId   ID исполнителя
+     * @param labelIds     ID меток
+     * @param allLabels    true - задача должна иметь все метки, false - хотя бы одну
+     * @return новое битовое множество ID задач, которое вызывающий код может изменять
+     */
+    public RoaringBitmap filter(Long taskStatusId, Long assigneeId, Collection<Long> labelIds, boolean allLabels) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> required = new ArrayList<>();
+            if (taskStatusId != null) {
+                required.add(byStatus.getOrDefault(taskStatusId, new RoaringBitmap()));
+            }
+            if (assigneeId != null) {
+                required.add(byAssignee.getOrDefault(assigneeId, new RoaringBitmap()));
+            }
+            if (labelIds != null && !labelIds.isEmpty()) {
+                List<RoaringBitmap> labelled = labelIds.stream()
+                        .map(labelId -> byLabel.getOrDefault(labelId, new RoaringBitmap()))
+                        .toList();
+                if (allLabels) {
+                    required.addAll(labelled);
+                } else {
+                    required.add(RoaringBitmap.or(labelled.iterator()));
+                }
+            }
+
+            if (required.isEmpty()) {
+                return allTasks.clone();
+            }
+            if (required.size() == 1) {
+                return required.get(0).clone();
+            }
+            return FastAggregation.and(required.iterator());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Подсчитывает задачи из множества в разрезе статусов, исполнителей и меток.
+     * Для каждого значения считается мощность пересечения без построения самого пересечения.
+     *
+     * @param matches ID задач, например результат {@link #filter}
+     * @return количество задач по ID статуса, исполнителя и метки (нулевые значения не включаются)
+     */
+    public FacetCounts countFacets(RoaringBitmap matches) {
+        lock.readLock().lock();
+        try {
+            return new FacetCounts(count(byStatus, matches), count(byAssignee, matches), count(byLabel, matches));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество проиндексированных задач.
+     *
+     * @return количество задач в индексе
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return allTasks.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<Long, Long> count(Map<Long, RoaringBitmap> bitmaps, RoaringBitmap matches) {
+        Map<Long, Long> counts = new TreeMap<>();
+        bitmaps.forEach((key, bitmap) -> {
+            long cardinality = RoaringBitmap.andCardinality(bitmap, matches);
+            if (cardinality > 0) {
+                counts.put(key, cardinality);
+            }
+        });
+        return counts;
+    }
+
+    private void index(TaskDocument document) {
+        int id = Math.toIntExact(document.id());
+        remove(id);
+        Membership membership = new Membership(document.taskStatusId(), document.assigneeId(),
+                List.copyOf(document.labelIds()));
+        memberships.put(id, membership);
+        allTasks.add(id);
+        add(byStatus, membership.taskStatusId(), id);
+        add(byAssignee, membership.assigneeId(), id);
+        membership.labelIds().forEach(labelId -> add(byLabel, labelId, id));
+    }
+
+    private void remove(int id) {
+        Membership membership = memberships.remove(id);
+        if (membership == null) {
+            return;
+        }
+        allTasks.remove(id);
+        remove(byStatus, membership.taskStatusId(), id);
+        remove(byAssignee, membership.assigneeId(), id);
+        membership.labelIds().forEach(labelId -> remove(byLabel, labelId, id));
+    }
+
+    private static void add(Map<Long, RoaringBitmap> bitmaps, Long key, int id) {
+        if (key != null) {
+            bitmaps.computeIfAbsent(key, k -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private static void remove(Map<Long, RoaringBitmap> bitmaps, Long key, int id) {
+        if (key == null) {
+            return;
+        }
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Количество задач по ID статуса, исполнителя и метки.
+     *
+     * @param byStatus   количество задач по ID статуса
+     * @param byAssignee количество задач по ID исполнителя
+     * @param byLabel    количество задач по ID метки
+     */
+    public record FacetCounts(Map<Long, Long> byStatus, Map<Long, Long> byAssignee, Map<Long, Long> byLabel) {
+    }
+
+    // Значения, по которым задача внесена в битовые множества; нужны, чтобы удалить её оттуда
+    private record Membership(Long taskStatusId, Long assigneeId, List<Long> labelIds) {
+    }
+}
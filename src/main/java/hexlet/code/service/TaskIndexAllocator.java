@@ -0,0 +1,73 @@
+package hexlet.code.service;
+
+import hexlet.code.repository.DatabaseSequences;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Выдаёт порядковые номера (index) новых задач.
+ * Номера берутся блоками из последовательности БД с шагом {@link #BLOCK_SIZE}: каждый узел забирает
+ * себе непересекающийся диапазон [n, n + BLOCK_SIZE) и раздаёт его потокам через {@link AtomicLong}
+ * без блокировок. К базе обращаемся один раз на блок, COUNT по таблице задач больше не нужен.
+ * Номера уникальны, но после перезапуска в нумерации могут остаться пропуски.
+ * Последовательность создаёт и выравнивает по существующим задачам {@link hexlet.code.config.TaskSequenceInitializer}
+ * при старте, поэтому пополнение блока - одно обращение к последовательности в соединении вызывающего кода.
+ */
+@Component
+public final class TaskIndexAllocator {
+
+    /**
+     * Имя последовательности порядковых номеров задач.
+     */
+    public static final String SEQUENCE_NAME = "task_index_seq";
+
+    /**
+     * Количество номеров, которое узел забирает за одно обращение к последовательности.
+     */
+    public static final int BLOCK_SIZE = 50;
+
+    private final DatabaseSequences sequences;
+    private final Lock refillLock = new ReentrantLock();
+
+    private volatile Block block = new Block(new AtomicLong(), 0);
+
+    public TaskIndexAllocator(DatabaseSequences sequences) {
+        this.sequences = sequences;
+    }
+
+    /**
+     * Возвращает следующий уникальный номер задачи.
+     *
+     * @return номер задачи
+     */
+    public int nextIndex() {
+        while (true) {
+            Block current = block;
+            long value = current.next().getAndIncrement();
+            if (value < current.end()) {
+                return Math.toIntExact(value);
+            }
+            refill(current);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Блок мог уже обновить другой поток, пока мы ждали блокировку
+            if (block != exhausted) {
+                return;
+            }
+            long start = sequences.nextValue(SEQUENCE_NAME);
+            block = new Block(new AtomicLong(start), start + BLOCK_SIZE);
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private record Block(AtomicLong next, long end) {
+    }
+}
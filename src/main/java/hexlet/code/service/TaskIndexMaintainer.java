@@ -0,0 +1,234 @@
+package hexlet.code.service;
+
+import hexlet.code.config.ReplicaRoutingDataSource;
+import hexlet.code.dto.TaskDocument;
+import hexlet.code.repository.TaskRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Заполняет и поддерживает в актуальном состоянии все индексы задач в памяти процесса ({@link TaskDocumentIndex}).
+ * <p>
+ * Индексы строятся после старта приложения порциями по ID, затем обновляются по {@link TaskChangedEvent}.
+ * Событие только добавляет ID задач в очередь: перечитывание из БД выполняется в отдельном потоке,
+ * уже после того как транзакция записи вернула соединение в пул, и ID, накопившиеся за время
+ * перечитывания, обрабатываются следующей порцией одним запросом. Отсутствующие в БД задачи удаляются
+ * из индексов. Изменения, зафиксированные во время построения, откладываются и применяются в конце.
+ * </p>
+ * <p>
+ * Индексы содержат только зафиксированные и уже применённые изменения. Пока они строятся, пока в очереди
+ * есть неприменённые изменения, а также в транзакции с незафиксированными изменениями задач
+ * {@link #isAvailable()} возвращает false, и запросы идут в БД. Если построение или перечитывание
+ * завершилось ошибкой, оно повторяется через {@code app.task-index.retry-delay}, а до тех пор запросы
+ * также идут в БД. Задача с ID больше {@link TaskDocumentIndex#MAX_TASK_ID} отключает индексы до перезапуска.
+ * </p>
+ * <p>
+ * Индексы узнают об изменениях только из транзакций своего процесса, поэтому годятся лишь для
+ * развёртывания с одним экземпляром приложения. При нескольких экземплярах, а также если задачи
+ * изменяются в БД в обход приложения, индексы нужно отключить свойством {@code app.task-index.enabled=false}.
+ * </p>
+ */
+@Component
+public final class TaskIndexMaintainer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskIndexMaintainer.class);
+
+    private static final int BUILD_CHUNK_SIZE = 1000;
+
+    private final List<TaskDocumentIndex> indexes;
+    private final TaskRepository taskRepository;
+    private final TaskChangeTracker taskChangeTracker;
+    private final TransactionTemplate reloadTransaction;
+    private final Duration retryDelay;
+
+    // Индексы изменяет один поток: каждое следующее чтение из БД видит не более старое состояние,
+    // чем предыдущее, и индексы не откатываются к устаревшим данным
+    private final ScheduledExecutorService reloadExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform()
+                    .name("task-index-reload")
+                    .daemon()
+                    .factory());
+
+    private final Object pendingLock = new Object();
+    private Set<Long> pendingIds = new HashSet<>();
+    private boolean reloading;
+    private boolean ready;
+
+    // true, когда индексы построены и все зафиксированные изменения применены; читается без блокировки
+    private volatile boolean available;
+    // true, если индексы отключены настройкой или встретилась задача с ID вне диапазона индексов
+    private volatile boolean disabled;
+
+    public TaskIndexMaintainer(List<TaskDocumentIndex> indexes, TaskRepository taskRepository,
+                               TaskChangeTracker taskChangeTracker, PlatformTransactionManager transactionManager,
+                               @Value("${app.task-index.enabled:true}") boolean enabled,
+                               @Value("${app.task-index.retry-delay:5s}") Duration retryDelay) {
+        this.indexes = indexes;
+        this.taskRepository = taskRepository;
+        this.taskChangeTracker = taskChangeTracker;
+        this.retryDelay = retryDelay;
+        this.disabled = !enabled;
+        // При чтении с реплик задачи перечитываются с основного сервера (ReplicaRoutingDataSource.readFromPrimary),
+        // чтобы индексы видели только что зафиксированные изменения
+        this.reloadTransaction = new TransactionTemplate(transactionManager);
+        this.reloadTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Строит индексы после старта приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (disabled) {
+            LOGGER.info("Task indexes are disabled, task queries use the database");
+            return;
+        }
+        long startedAt = System.nanoTime();
+        long after = 0;
+        int count = 0;
+        List<TaskDocument> chunk;
+        try {
+            do {
+                long from = after;
+                chunk = ReplicaRoutingDataSource.readFromPrimary(() -> reloadTransaction.execute(status ->
+                        taskRepository.findDocumentsAfter(from, BUILD_CHUNK_SIZE)));
+                if (!update(List.of(), chunk)) {
+                    return;
+                }
+                if (!chunk.isEmpty()) {
+                    after = chunk.get(chunk.size() - 1).id();
+                    count += chunk.size();
+                }
+            } while (chunk.size() == BUILD_CHUNK_SIZE);
+        } catch (RuntimeException e) {
+            // Повторное построение переиндексирует все задачи; удаления, зафиксированные с начала
+            // этой попытки, уже стоят в очереди и будут применены после построения
+            LOGGER.error("Failed to build task indexes, retrying in {}", retryDelay, e);
+            reloadExecutor.schedule(this::build, retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        synchronized (pendingLock) {
+            ready = true;
+            scheduleReload();
+        }
+        LOGGER.info("Built {} task indexes over {} tasks in {} ms",
+                indexes.size(), count, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * Ставит изменённые задачи в очередь на перечитывание. Вызывается после фиксации транзакции
+     * в потоке записи и не обращается к БД.
+     *
+     * @param event событие с ID изменённых задач
+     */
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (disabled) {
+            return;
+        }
+        synchronized (pendingLock) {
+            pendingIds.addAll(event.taskIds());
+            available = false;
+            if (ready) {
+                scheduleReload();
+            }
+        }
+    }
+
+    /**
+     * Проверяет, можно ли отвечать на запросы текущего потока по индексам.
+     *
+     * @return true если индексы построены, все зафиксированные изменения применены
+     *         и текущая транзакция не изменяла задачи
+     */
+    public boolean isAvailable() {
+        return available && !disabled && !taskChangeTracker.hasUncommittedChanges();
+    }
+
+    /**
+     * Останавливает поток перечитывания.
+     */
+    @PreDestroy
+    public void shutdown() {
+        reloadExecutor.shutdownNow();
+    }
+
+    // Вызывается под pendingLock
+    private void scheduleReload() {
+        if (reloading) {
+            return;
+        }
+        if (pendingIds.isEmpty()) {
+            available = true;
+            return;
+        }
+        reloading = true;
+        reloadExecutor.execute(this::reloadPending);
+    }
+
+    private void reloadPending() {
+        while (true) {
+            Set<Long> ids;
+            synchronized (pendingLock) {
+                if (pendingIds.isEmpty()) {
+                    reloading = false;
+                    available = true;
+                    return;
+                }
+                ids = pendingIds;
+                pendingIds = new HashSet<>();
+            }
+
+            try {
+                List<Long> idList = List.copyOf(ids);
+                List<TaskDocument> documents = ReplicaRoutingDataSource.readFromPrimary(() ->
+                        reloadTransaction.execute(status -> taskRepository.findDocumentsByIds(idList)));
+                if (!update(idList, documents)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // Задачи возвращаются в очередь вместе с изменениями, накопившимися до повтора;
+                // до тех пор индексы недоступны, и запросы идут в БД
+                LOGGER.error("Failed to update task indexes for tasks {}, retrying in {}", ids, retryDelay, e);
+                synchronized (pendingLock) {
+                    pendingIds.addAll(ids);
+                }
+                reloadExecutor.schedule(this::reloadPending, retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+    }
+
+    // false, если индексы отключены из-за ID вне диапазона
+    private boolean update(Collection<Long> ids, Collection<TaskDocument> documents) {
+        boolean outOfRange = ids.stream().anyMatch(id -> id > TaskDocumentIndex.MAX_TASK_ID)
+                || documents.stream().anyMatch(document -> document.id() > TaskDocumentIndex.MAX_TASK_ID);
+        if (outOfRange) {
+            disabled = true;
+            available = false;
+            LOGGER.error("Task ID exceeds {}, task indexes are disabled until restart", TaskDocumentIndex.MAX_TASK_ID);
+            return false;
+        }
+        for (TaskDocumentIndex index : indexes) {
+            index.update(ids, documents);
+        }
+        return true;
+    }
+}
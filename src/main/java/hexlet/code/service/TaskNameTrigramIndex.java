@@ -0,0 +1,159 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskDocument;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Триграммный индекс названий задач в памяти процесса для фильтра {@code titleCont} («название содержит»).
+ * <p>
+ * Для каждой триграммы (трёх подряд идущих символов названия в нижнем регистре) хранится сжатое
+ * битовое множество (RoaringBitmap) ID задач - то же представление, что и в {@link TaskFilterIndex},
+ * поэтому результат пересекается с остальными фильтрами без преобразований. Подстрока длиной от трёх
+ * символов может входить только в названия, содержащие все её триграммы: кандидаты получаются
+ * пересечением этих множеств, начиная с самого маленького, и затем проверяются по сохранённому
+ * названию, поэтому результат точный. Короткие подстроки проверяются перебором названий в памяти
+ * без обращения к БД.
+ * </p>
+ * <p>
+ * Индекс заполняет и обновляет {@link TaskIndexMaintainer}; использовать его результаты можно,
+ * только пока {@link TaskIndexMaintainer#isAvailable()} возвращает true.
+ * </p>
+ */
+@Component
+public final class TaskNameTrigramIndex implements TaskDocumentIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, RoaringBitmap> postings = new HashMap<>();
+    private final Map<Integer, String> names = new HashMap<>();
+
+    /**
+     * Удаляет задачи из индекса и индексирует их новые версии.
+     *
+     * @param ids       ID изменённых задач
+     * @param documents текущие версии существующих задач
+     */
+    @Override
+    public void update(Collection<Long> ids, Collection<TaskDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(id -> remove(Math.toIntExact(id)));
+            documents.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает ID задач, название которых содержит подстроку без учёта регистра.
+     *
+     * @param fragment подстрока
+     * @return новое битовое множество ID задач, которое вызывающий код может изменять
+     */
+    public RoaringBitmap findContaining(String fragment) {
+        String needle = fragment.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            if (needle.length() < GRAM_LENGTH) {
+                return scan(needle);
+            }
+
+            Set<Long> grams = trigrams(needle);
+            RoaringBitmap[] lists = new RoaringBitmap[grams.size()];
+            int i = 0;
+            for (Long gram : grams) {
+                lists[i] = postings.get(gram);
+                if (lists[i] == null) {
+                    return new RoaringBitmap();
+                }
+                i++;
+            }
+            Arrays.sort(lists, Comparator.comparingInt(RoaringBitmap::getCardinality));
+            return intersect(lists, needle);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество проиндексированных задач.
+     *
+     * @return количество задач в индексе
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap intersect(RoaringBitmap[] lists, String needle) {
+        RoaringBitmap candidates = lists[0].clone();
+        for (int j = 1; j < lists.length && !candidates.isEmpty(); j++) {
+            candidates.and(lists[j]);
+        }
+        // Все триграммы есть в названии, но не обязательно подряд: проверяем вхождение подстроки
+        RoaringBitmap result = new RoaringBitmap();
+        candidates.forEach((int id) -> {
+            if (names.get(id).contains(needle)) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+
+    private RoaringBitmap scan(String needle) {
+        RoaringBitmap result = new RoaringBitmap();
+        names.forEach((id, name) -> {
+            if (name.contains(needle)) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+
+    private void index(TaskDocument document) {
+        int id = Math.toIntExact(document.id());
+        remove(id);
+        String name = document.name() == null ? "" : document.name().toLowerCase(Locale.ROOT);
+        names.put(id, name);
+        for (Long gram : trigrams(name)) {
+            postings.computeIfAbsent(gram, key -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private void remove(int id) {
+        String name = names.remove(id);
+        if (name == null) {
+            return;
+        }
+        for (Long gram : trigrams(name)) {
+            RoaringBitmap ids = postings.get(gram);
+            if (ids != null && ids.checkedRemove(id) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+}
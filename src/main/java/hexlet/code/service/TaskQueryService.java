@@ -0,0 +1,161 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskFacets;
+import hexlet.code.dto.TaskPage;
+import hexlet.code.dto.TaskParamsDTO;
+import hexlet.code.dto.TaskView;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.repository.TaskRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Выполняет запросы к списку задач: выбирает между индексами в памяти процесса и запросами к БД.
+ * Индексы используются, только когда {@link TaskIndexMaintainer#isAvailable()} возвращает true,
+ * иначе запросы выполняются в БД с той же семантикой.
+ */
+@Service
+public class TaskQueryService {
+
+    private final TaskRepository taskRepository;
+    private final TaskIndexMaintainer taskIndexMaintainer;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskNameTrigramIndex taskNameTrigramIndex;
+    private final TaskFilterIndex taskFilterIndex;
+    private final TaskStatusRegistry taskStatusRegistry;
+
+    public TaskQueryService(TaskRepository taskRepository, TaskIndexMaintainer taskIndexMaintainer,
+                            TaskSearchIndex taskSearchIndex, TaskNameTrigramIndex taskNameTrigramIndex,
+                            TaskFilterIndex taskFilterIndex, TaskStatusRegistry taskStatusRegistry) {
+        this.taskRepository = taskRepository;
+        this.taskIndexMaintainer = taskIndexMaintainer;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskNameTrigramIndex = taskNameTrigramIndex;
+        this.taskFilterIndex = taskFilterIndex;
+        this.taskStatusRegistry = taskStatusRegistry;
+    }
+
+    /**
+     * Возвращает страницу задач по фильтрам, начиная со следующей после {@code after}.
+     * Все фильтры разрешаются индексами в памяти (пересечением битовых множеств), а задачи страницы
+     * загружаются из БД одним запросом по ID.
+     *
+     * @param params параметры фильтрации
+     * @param after ID последней задачи предыдущей страницы
+     * @param limit максимальное количество задач
+     * @return задачи по возрастанию ID
+     * @throws RuntimeException если указан неподдерживаемый режим фильтра по меткам
+     */
+    public List<TaskView> findTasks(TaskParamsDTO params, long after, int limit) {
+        RoaringBitmap matches = findMatchingIds(params);
+        if (matches == null) {
+            return taskRepository.findTasksByFilters(params, after, limit);
+        }
+        return taskRepository.findTaskViewsByIds(page(matches, after, limit));
+    }
+
+    /**
+     * Возвращает страницу задач по фильтрам и общее количество подходящих задач.
+     * Фильтры разрешаются один раз: страница и количество берутся из одного множества ID.
+     *
+     * @param params параметры фильтрации
+     * @param after ID последней задачи предыдущей страницы
+     * @param limit максимальное количество задач
+     * @return задачи по возрастанию ID и их общее количество
+     * @throws RuntimeException если указан неподдерживаемый режим фильтра по меткам
+     */
+    public TaskPage findTaskPage(TaskParamsDTO params, long after, int limit) {
+        RoaringBitmap matches = findMatchingIds(params);
+        if (matches == null) {
+            return new TaskPage(taskRepository.findTasksByFilters(params, after, limit),
+                    taskRepository.countTasksByFilters(params));
+        }
+        return new TaskPage(taskRepository.findTaskViewsByIds(page(matches, after, limit)),
+                matches.getLongCardinality());
+    }
+
+    /**
+     * Подсчитывает задачи, соответствующие фильтрам, в разрезе статусов, меток и исполнителей.
+     *
+     * @param params параметры фильтрации
+     * @return количество задач по разрезам
+     * @throws RuntimeException если указан неподдерживаемый режим фильтра по меткам
+     */
+    public TaskFacets countFacets(TaskParamsDTO params) {
+        RoaringBitmap matches = findMatchingIds(params);
+        if (matches == null) {
+            return taskRepository.countFacetsByFilters(params);
+        }
+
+        TaskFilterIndex.FacetCounts counts = taskFilterIndex.countFacets(matches);
+        Map<String, Long> statuses = new TreeMap<>();
+        counts.byStatus().forEach((taskStatusId, count) -> taskStatusRegistry.findById(taskStatusId)
+                .ifPresent(taskStatus -> statuses.put(taskStatus.getSlug(), count)));
+        return new TaskFacets(matches.getLongCardinality(), statuses, counts.byLabel(), counts.byAssignee());
+    }
+
+    /**
+     * Полнотекстовый поиск задач по названию и описанию.
+     *
+     * @param query строка запроса
+     * @param limit максимальное количество задач
+     * @return задачи по убыванию релевантности (по возрастанию ID, если индекс недоступен)
+     */
+    public List<TaskView> searchTasks(String query, int limit) {
+        if (taskIndexMaintainer.isAvailable()) {
+            return taskRepository.findTaskViewsByIds(taskSearchIndex.search(query, limit));
+        }
+        return taskRepository.searchTaskViews(TaskSearchIndex.tokenize(query), limit);
+    }
+
+    // ID задач, подходящих под все фильтры, или null, если фильтровать нужно в БД
+    private RoaringBitmap findMatchingIds(TaskParamsDTO params) {
+        String labelMatch = params.getLabelMatch();
+        if (labelMatch != null && !"any".equalsIgnoreCase(labelMatch) && !"all".equalsIgnoreCase(labelMatch)) {
+            throw new RuntimeException("labelMatch must be 'any' or 'all'");
+        }
+        if (!taskIndexMaintainer.isAvailable()) {
+            return null;
+        }
+
+        Long taskStatusId = null;
+        String status = params.getStatus();
+        if (status != null && !status.isEmpty()) {
+            // Реестр ищет без учёта регистра, а фильтр в БД сравнивает slug точно
+            Optional<TaskStatus> taskStatus = taskStatusRegistry.findBySlug(status)
+                    .filter(found -> found.getSlug().equals(status));
+            if (taskStatus.isEmpty()) {
+                return null;
+            }
+            taskStatusId = taskStatus.get().getId();
+        }
+
+        RoaringBitmap matches = taskFilterIndex.filter(taskStatusId, params.getAssigneeId(),
+                params.getLabelId(), params.isAllLabelsRequired());
+        String titleCont = params.getTitleCont();
+        if (titleCont != null && !titleCont.isEmpty()) {
+            matches.and(taskNameTrigramIndex.findContaining(titleCont));
+        }
+        return matches;
+    }
+
+    private static List<Long> page(RoaringBitmap matches, long after, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+        if (after >= Integer.MAX_VALUE) {
+            return ids;
+        }
+        PeekableIntIterator iterator = matches.getIntIterator();
+        iterator.advanceIfNeeded((int) Math.max(after + 1, 0));
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add((long) iterator.next());
+        }
+        return ids;
+    }
+}
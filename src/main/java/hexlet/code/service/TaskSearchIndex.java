@@ -0,0 +1,265 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskDocument;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Полнотекстовый индекс задач в памяти процесса по названию и описанию.
+ * <p>
+ * Инвертированный индекс: для каждого слова хранится отсортированный по ID список задач (postings)
+ * с весом слова в задаче. Слово в названии весит вдвое больше, чем в описании. Запрос ищет задачи,
+ * содержащие все слова запроса: пересечение начинается с самого короткого списка, а остальные списки
+ * проверяются двоичным поиском, поэтому время поиска определяется самым редким словом запроса.
+ * Результаты ранжируются по tf-idf.
+ * </p>
+ * <p>
+ * Индекс заполняет и обновляет {@link TaskIndexMaintainer}; использовать его результаты можно,
+ * только пока {@link TaskIndexMaintainer#isAvailable()} возвращает true.
+ * </p>
+ */
+@Component
+public final class TaskSearchIndex implements TaskDocumentIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    // Поиск - под блокировкой чтения, изменение индекса - под блокировкой записи
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, String[]> documentTerms = new HashMap<>();
+
+    /**
+     * Удаляет задачи из индекса и индексирует их новые версии.
+     *
+     * @param ids       ID изменённых задач
+     * @param documents текущие версии существующих задач
+     */
+    @Override
+    public void update(Collection<Long> ids, Collection<TaskDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::remove);
+            documents.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет задачи, содержащие все слова запроса в названии или описании.
+     *
+     * @param query строка запроса
+     * @param limit максимальное количество результатов
+     * @return ID задач по убыванию релевантности
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+            return intersect(lists, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Разбивает текст на слова в нижнем регистре. Разделителями считаются все символы,
+     * кроме букв и цифр.
+     *
+     * @param text текст (может быть null)
+     * @return слова текста в порядке следования
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(text.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Возвращает количество проиндексированных задач.
+     *
+     * @return количество задач в индексе
+     */
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество различных слов в индексе.
+     *
+     * @return количество слов
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> intersect(Postings[] lists, int limit) {
+        double documentCount = documentTerms.size();
+        double[] idf = new double[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            idf[i] = Math.log(1 + documentCount / lists[i].size);
+        }
+
+        int[] cursors = new int[lists.length];
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        Postings shortest = lists[0];
+
+        candidates:
+        for (int i = 0; i < shortest.size; i++) {
+            long id = shortest.ids[i];
+            double score = weight(shortest.frequencies[i], idf[0]);
+            for (int j = 1; j < lists.length; j++) {
+                Postings other = lists[j];
+                // Кандидаты идут по возрастанию ID, поэтому поиск продолжается с последней позиции
+                int position = Arrays.binarySearch(other.ids, cursors[j], other.size, id);
+                if (position < 0) {
+                    cursors[j] = -position - 1;
+                    if (cursors[j] == other.size) {
+                        break candidates;
+                    }
+                    continue candidates;
+                }
+                cursors[j] = position + 1;
+                score += weight(other.frequencies[position], idf[j]);
+            }
+            top.offer(new Hit(id, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(WORST_FIRST.reversed());
+        return hits.stream().map(Hit::id).toList();
+    }
+
+    private static double weight(int frequency, double idf) {
+        return (1 + Math.log(frequency)) * idf;
+    }
+
+    private void index(TaskDocument document) {
+        remove(document.id());
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(document.name()).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(document.description()).forEach(term -> frequencies.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+        String[] terms = new String[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            Postings list = postings.computeIfAbsent(entry.getKey(), Postings::new);
+            list.put(document.id(), entry.getValue());
+            terms[i++] = list.term;
+        }
+        documentTerms.put(document.id(), terms);
+    }
+
+    private void remove(Long id) {
+        String[] terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private record Hit(long id, double score) {
+    }
+
+    /**
+     * Отсортированный по ID список задач, содержащих слово, с весом слова в каждой задаче.
+     * Новые задачи получают наибольшие ID, поэтому вставка обычно сводится к добавлению в конец.
+     */
+    private static final class Postings {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        private final String term;
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private int[] frequencies = new int[INITIAL_CAPACITY];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void put(long id, int frequency) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                frequencies[position] = frequency;
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            frequencies[insertAt] = frequency;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
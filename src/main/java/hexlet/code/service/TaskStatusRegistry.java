@@ -0,0 +1,170 @@
+package hexlet.code.service;
+
+import hexlet.code.config.ReplicaRoutingDataSource;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.repository.TaskStatusRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Реестр статусов задач в памяти процесса: статусы по ID и по slug в нижнем регистре.
+ * Статусы меняются редко, поэтому на горячем пути (создание и обновление задач) они берутся отсюда
+ * без запросов к БД.
+ * <p>
+ * Транзакция, изменившая статусы, до своего завершения обходит реестр (читает из БД),
+ * а по её завершении реестр сбрасывается и при следующем обращении загружается заново.
+ * </p>
+ * <p>
+ * Реестр загружает один поток: остальные ждут его результата, а не читают статусы каждый сам.
+ * Загрузка идёт в транзакции вызывающего (или в новой, если её нет) на уже полученном ей соединении:
+ * вложенная транзакция потребовала бы второе соединение из пула, пока первое занято, и одновременные
+ * загрузки могли бы исчерпать пул. Транзакция, обходящая реестр, его не загружает, поэтому загрузка
+ * видит только зафиксированные данные. Статусы загружаются копиями вне контекста персистентности
+ * вызывающего, чтобы его изменения не попадали в общий реестр.
+ * </p>
+ * <p>
+ * Загрузка помечена как только для чтения и не считается записью пользователя. При чтении с реплик
+ * она идёт с основного сервера ({@link ReplicaRoutingDataSource#readFromPrimary}); если транзакция
+ * вызывающего уже читает с реплики, где статусов могло ещё не быть, загруженный снимок отдаётся только
+ * этому вызову и не кэшируется.
+ * </p>
+ */
+@Component
+public final class TaskStatusRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskStatusRegistry.class);
+
+    private final TaskStatusRepository taskStatusRepository;
+    private final TransactionTemplate loadTransaction;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    public TaskStatusRegistry(TaskStatusRepository taskStatusRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.taskStatusRepository = taskStatusRepository;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Загружает реестр после старта приложения (после начального заполнения статусов).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        currentSnapshot();
+    }
+
+    /**
+     * Ищет статус по slug без учёта регистра.
+     *
+     * @param slug slug статуса
+     * @return статус или пустой результат, если его нет в реестре или реестр недоступен в текущей транзакции
+     */
+    public Optional<TaskStatus> findBySlug(String slug) {
+        if (slug == null || !isAvailable()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(currentSnapshot().bySlug().get(slug.toLowerCase()));
+    }
+
+    /**
+     * Ищет статус по ID.
+     *
+     * @param id идентификатор статуса
+     * @return статус или пустой результат, если его нет в реестре или реестр недоступен в текущей транзакции
+     */
+    public Optional<TaskStatus> findById(Long id) {
+        if (id == null || !isAvailable()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(currentSnapshot().byId().get(id));
+    }
+
+    /**
+     * Сообщает реестру, что статусы изменяются в текущей транзакции.
+     * До завершения транзакции она читает статусы из БД, а после завершения (фиксации или отката)
+     * реестр сбрасывается.
+     */
+    public void invalidate() {
+        reset();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TaskStatusRegistry.this);
+                    reset();
+                }
+            });
+        }
+    }
+
+    private boolean isAvailable() {
+        return !TransactionSynchronizationManager.hasResource(this);
+    }
+
+    private void reset() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        loadLock.lock();
+        try {
+            current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            return load();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // Вызывается под loadLock
+    private Snapshot load() {
+        long loadedGeneration = generation.get();
+        List<TaskStatus> statuses = ReplicaRoutingDataSource.readFromPrimary(() ->
+                loadTransaction.execute(status -> taskStatusRepository.findAllDetached()));
+        Map<Long, TaskStatus> byId = new HashMap<>();
+        Map<String, TaskStatus> bySlug = new HashMap<>();
+        for (TaskStatus taskStatus : statuses) {
+            byId.put(taskStatus.getId(), taskStatus);
+            bySlug.putIfAbsent(taskStatus.getSlug().toLowerCase(), taskStatus);
+        }
+        Snapshot loaded = new Snapshot(Map.copyOf(byId), Map.copyOf(bySlug));
+        LOGGER.debug("Loaded {} task statuses into registry", byId.size());
+
+        // Если реестр сбросили во время загрузки или статусы прочитаны с реплики, снимок мог устареть:
+        // отдаём его только текущему вызову
+        if (generation.get() == loadedGeneration && !ReplicaRoutingDataSource.isCurrentTransactionOnReplica()) {
+            snapshot = loaded;
+        }
+        return loaded;
+    }
+
+    private record Snapshot(Map<Long, TaskStatus> byId, Map<String, TaskStatus> bySlug) {
+    }
+}
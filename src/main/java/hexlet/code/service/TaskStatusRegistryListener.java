@@ -0,0 +1,35 @@
+package hexlet.code.service;
+
+import hexlet.code.model.TaskStatus;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA-слушатель сущности {@link TaskStatus}: сбрасывает {@link TaskStatusRegistry} при любой записи статуса,
+ * в том числе в обход {@link TaskStatusService} (начальное заполнение, прямые вызовы репозитория).
+ * Реестр получаем лениво: слушатель создаётся вместе с EntityManagerFactory, раньше репозиториев.
+ */
+@Component
+public final class TaskStatusRegistryListener {
+
+    private final ObjectProvider<TaskStatusRegistry> registry;
+
+    public TaskStatusRegistryListener(ObjectProvider<TaskStatusRegistry> registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Сбрасывает реестр при создании, изменении или удалении статуса.
+     *
+     * @param taskStatus изменяемый статус
+     */
+    @PrePersist
+    @PreUpdate
+    @PreRemove
+    public void onChange(TaskStatus taskStatus) {
+        registry.ifAvailable(TaskStatusRegistry::invalidate);
+    }
+}
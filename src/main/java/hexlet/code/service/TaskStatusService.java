@@ -2,13 +2,19 @@ package hexlet.code.service;
 
 import hexlet.code.dto.TaskStatusUpdateDto;
 import hexlet.code.model.TaskStatus;
+import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Сервис для управления статусами задач (TaskStatus).
@@ -22,9 +28,14 @@ public class TaskStatusService {
     private static final String DEFAULT_SLUG = "default";
 
     private final TaskStatusRepository taskStatusRepository;
+    private final TaskStatusRegistry taskStatusRegistry;
+    private final TaskRepository taskRepository;
 
-    public TaskStatusService(TaskStatusRepository taskStatusRepository) {
+    public TaskStatusService(TaskStatusRepository taskStatusRepository, TaskStatusRegistry taskStatusRegistry,
+                             TaskRepository taskRepository) {
         this.taskStatusRepository = taskStatusRepository;
+        this.taskStatusRegistry = taskStatusRegistry;
+        this.taskRepository = taskRepository;
     }
 
     /**
@@ -42,6 +53,7 @@ public class TaskStatusService {
             throw new IllegalArgumentException("TaskStatus slug must not be null or empty");
         }
 
+        taskStatusRegistry.invalidate();
         return taskStatusRepository.save(taskStatus);
     }
 
@@ -72,21 +84,48 @@ public class TaskStatusService {
     }
 
     /**
-     * Получает статус задачи по slug.
+     * Получает статус задачи по slug. Статус берётся из {@link TaskStatusRegistry},
+     * к БД обращаемся только если его там нет.
      *
      * @param slug уникальный идентификатор статуса задачи
      * @return найденный статус задачи
      * @throws RuntimeException если статус задачи не найден
      */
     public TaskStatus getTaskStatusBySlug(String slug) {
-        LOGGER.info("Fetching task status by slug: {}", slug);
-        return taskStatusRepository.findBySlugIgnoreCase(slug)
+        LOGGER.debug("Fetching task status by slug: {}", slug);
+        return taskStatusRegistry.findBySlug(slug)
+                .or(() -> taskStatusRepository.findBySlugIgnoreCase(slug))
                 .orElseThrow(() -> {
                     LOGGER.error("Task status not found for slug: {}", slug);
                     return new RuntimeException("TaskStatus not found: " + slug);
                 });
     }
 
+    /**
+     * Получает статусы задач по набору slug (без учёта регистра) одним запросом.
+     *
+     * @param slugs slug статусов
+     * @return статусы, сгруппированные по slug в нижнем регистре
+     * @throws RuntimeException если какой-то статус не найден
+     */
+    public Map<String, TaskStatus> getTaskStatusesBySlugs(Collection<String> slugs) {
+        if (slugs.isEmpty()) {
+            return Map.of();
+        }
+        Set<String> lowerSlugs = slugs.stream().map(String::toLowerCase).collect(Collectors.toSet());
+        Map<String, TaskStatus> statuses = taskStatusRepository.findAllBySlugLowerIn(lowerSlugs).stream()
+                .collect(Collectors.toMap(status -> status.getSlug().toLowerCase(), Function.identity(),
+                        (first, second) -> first));
+        lowerSlugs.stream()
+                .filter(slug -> !statuses.containsKey(slug))
+                .findFirst()
+                .ifPresent(slug -> {
+                    LOGGER.error("Task status not found for slug: {}", slug);
+                    throw new RuntimeException("TaskStatus not found: " + slug);
+                });
+        return statuses;
+    }
+
     /**
      * Получает статус задачи по имени.
      *
@@ -105,11 +144,13 @@ public class TaskStatusService {
      */
     @Transactional
     public TaskStatus getDefaultTaskStatus() {
-        LOGGER.info("Fetching default task status: {}", DEFAULT_STATUS_NAME);
-        return taskStatusRepository.findBySlug(DEFAULT_SLUG)
+        LOGGER.debug("Fetching default task status: {}", DEFAULT_STATUS_NAME);
+        return taskStatusRegistry.findBySlug(DEFAULT_SLUG)
+                .or(() -> taskStatusRepository.findBySlug(DEFAULT_SLUG))
                 .orElseGet(() -> {
                     LOGGER.warn("Default TaskStatus not found. Creating new one.");
                     TaskStatus defaultStatus = new TaskStatus(null, DEFAULT_SLUG);
+                    taskStatusRegistry.invalidate();
                     return taskStatusRepository.save(defaultStatus);
                 });
     }
@@ -136,6 +177,7 @@ public class TaskStatusService {
             existingTaskStatus.setSlug(taskStatus.getSlug());
         }
 
+        taskStatusRegistry.invalidate();
         return taskStatusRepository.save(existingTaskStatus);
     }
 
@@ -161,6 +203,7 @@ public class TaskStatusService {
             existingTaskStatus.setSlug(taskStatusUpdateDto.getSlug());
         }
 
+        taskStatusRegistry.invalidate();
         return taskStatusRepository.save(existingTaskStatus);
     }
 
@@ -168,6 +211,7 @@ public class TaskStatusService {
      * Удаляет статус задачи по ID.
      *
      * @param id идентификатор статуса задачи
+     * @throws RuntimeException если статус не найден или используется задачами
      */
     @Transactional
     public void deleteTaskStatus(Long id) {
@@ -175,6 +219,10 @@ public class TaskStatusService {
         if (!taskStatusRepository.existsById(id)) {
             throw new RuntimeException("TaskStatus not found");
         }
+        if (taskRepository.existsByTaskStatusId(id)) {
+            throw new RuntimeException("Cannot delete task status: it is assigned to tasks");
+        }
+        taskStatusRegistry.invalidate();
         taskStatusRepository.deleteById(id);
         LOGGER.info("Task status with ID: {} deleted successfully", id);
     }
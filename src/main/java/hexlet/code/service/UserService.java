@@ -6,6 +6,7 @@ import hexlet.code.model.Role;
 import hexlet.code.model.User;
 import hexlet.code.repository.RoleRepository;
 import hexlet.code.repository.UserRepository;
+import hexlet.code.util.JwtPrincipal;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,10 +15,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.file.AccessDeniedException;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +35,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     /**
      * Получение объекта User по идентификатору.
      *
@@ -44,6 +50,29 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
     }
 
+    /**
+     * Получение ссылок на пользователей по набору идентификаторов одним запросом.
+     * Пользователи не загружаются: ссылок достаточно, чтобы назначить их исполнителями задач.
+     *
+     * @param ids идентификаторы пользователей
+     * @return ссылки на пользователей по идентификатору
+     * @throws RuntimeException если какой-то пользователь не найден
+     */
+    public Map<Long, User> findUserReferences(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> existingIds = new HashSet<>(userRepository.findExistingIds(ids));
+        ids.stream()
+                .filter(id -> !existingIds.contains(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new RuntimeException("User not found with ID: " + id);
+                });
+        return existingIds.stream()
+                .collect(Collectors.toMap(Function.identity(), userRepository::getReferenceById));
+    }
+
     /**
      * Создание нового пользователя с заданными ролями.
      *
@@ -111,6 +140,9 @@ public class UserService {
             throw new RuntimeException("Access denied. You don't have permission to update this user");
         }
 
+        // Старый email больше не должен аутентифицироваться из кэша
+        principalCache.evict(user.getEmail());
+
         // Обновление полей
         if (updates.containsKey("email")) {
             user.setEmail((String) updates.get("email"));
@@ -161,16 +193,23 @@ public class UserService {
             throw new AccessDeniedException("You don't have permission to delete this user");
         }
 
+        principalCache.evict(user.getEmail());
         userRepository.delete(user);
     }
 
     /**
      * Проверяет, является ли пользователь с указанным email администратором.
+     * Для текущего пользователя роли берутся из аутентификации без обращения к БД.
      *
      * @param email email пользователя
      * @return true, если пользователь является администратором
      */
     private boolean isAdmin(String email) {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && email.equals(authentication.getName())) {
+            return authentication.getAuthorities().stream()
+                    .anyMatch(authority -> authority.getAuthority().equalsIgnoreCase("ADMIN"));
+        }
         return userRepository.findByEmail(email)
                 .map(user -> user.getRoles().stream()
                         .anyMatch(role -> role.getName().equalsIgnoreCase("ADMIN")))
@@ -179,6 +218,7 @@ public class UserService {
 
     /**
      * Проверяет, является ли текущий пользователь владельцем учетной записи.
+     * Если токен содержит id пользователя, проверка выполняется без обращения к БД.
      *
      * @param userId идентификатор пользователя
      * @return true, если текущий пользователь совпадает с указанным ID
@@ -190,6 +230,10 @@ public class UserService {
             return false;
         }
 
+        if (authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return principal.id().equals(userId);
+        }
+
         var currentUsername = authentication.getName();
         var user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -0,0 +1,27 @@
+package hexlet.code.service;
+
+/**
+ * Коллекции API, ответы которых кэшируются клиентами по версии коллекции (ETag).
+ */
+public enum VersionedCollection {
+
+    TASKS("/api/tasks"),
+    LABELS("/api/labels"),
+    TASK_STATUSES("/api/task_statuses"),
+    USERS("/api/users");
+
+    private final String path;
+
+    VersionedCollection(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Возвращает путь коллекции в API.
+     *
+     * @return путь коллекции, например {@code /api/tasks}
+     */
+    public String getPath() {
+        return path;
+    }
+}
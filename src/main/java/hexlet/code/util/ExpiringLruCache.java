@@ -0,0 +1,147 @@
+package hexlet.code.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Небольшой потокобезопасный LRU-кэш с ограничением размера и временем жизни записей.
+ * Значение для отсутствующего ключа вычисляется вне блокировки, поэтому медленная загрузка
+ * (например, запрос к БД) не блокирует остальные обращения к кэшу.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public final class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Lock lock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    public ExpiringLruCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                return size() > ExpiringLruCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Возвращает значение из кэша или вычисляет и кэширует его.
+     *
+     * @param key ключ
+     * @param loader функция загрузки значения при промахе
+     * @return значение
+     */
+    public V get(K key, Function<K, V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        V loaded = loader.apply(key);
+        put(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * Возвращает значение, если оно есть в кэше и не устарело.
+     *
+     * @param key ключ
+     * @return значение или null
+     */
+    public V getIfPresent(K key) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            CacheEntry<V> entry = entries.get(key);
+            if (entry != null && now - entry.createdAt() < ttlNanos) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Кладёт значение в кэш.
+     *
+     * @param key ключ
+     * @param value значение
+     */
+    public void put(K key, V value) {
+        if (maxSize <= 0 || ttlNanos <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            entries.put(key, new CacheEntry<>(value, System.nanoTime()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет значение из кэша.
+     *
+     * @param key ключ
+     */
+    public void evict(K key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает текущее количество записей.
+     *
+     * @return количество записей
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество попаданий в кэш.
+     *
+     * @return количество попаданий
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Возвращает количество промахов кэша.
+     *
+     * @return количество промахов
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private record CacheEntry<T>(T value, long createdAt) {
+    }
+}
@@ -1,19 +1,40 @@
 package hexlet.code.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.security.Key;
 
 @Component
 public class JWTUtils {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+
+    private static final int VERIFIED_TOKENS_CACHE_SIZE = 10_000;
+    private static final Duration VERIFIED_TOKENS_CACHE_TTL = Duration.ofMinutes(10);
+
     private final Key signingKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
 
+    // JwtParser неизменяем после build() и потокобезопасен, поэтому создаётся один раз
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+
+    // Недавно проверенные токены. Ключ - токен целиком, а не только подпись:
+    // иначе к закэшированной подписи можно было бы приложить другие заголовок и claims
+    private final ExpiringLruCache<String, VerifiedToken> verifiedTokens =
+            new ExpiringLruCache<>(VERIFIED_TOKENS_CACHE_SIZE, VERIFIED_TOKENS_CACHE_TTL);
+
     /**
      * Генерация JWT токена.
      *
@@ -29,6 +50,49 @@ public class JWTUtils {
                 .compact();
     }
 
+    /**
+     * Генерация JWT токена с id и ролями пользователя в подписанных claims.
+     * Такой токен позволяет авторизовать запрос без чтения пользователя из БД.
+     *
+     * @param username имя пользователя
+     * @param userId идентификатор пользователя
+     * @param roles имена ролей пользователя
+     * @return сгенерированный JWT токен
+     */
+    public String generateToken(String username, Long userId, Collection<String> roles) {
+        return Jwts.builder()
+                .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 864000000)) // 10 дней
+                .signWith(signingKey, SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    /**
+     * Проверка подписи и срока действия токена с однократным разбором.
+     * Повторно предъявленные токены берутся из кэша без повторной проверки HMAC.
+     *
+     * @param token JWT токен
+     * @return проверенные данные токена
+     * @throws JwtException если подпись неверна, токен повреждён или истёк
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            // Истёкший токен разбираем заново, чтобы получить штатное ExpiredJwtException
+            verifiedTokens.evict(token);
+        }
+
+        VerifiedToken verified = VerifiedToken.from(getClaimsFromToken(token));
+        verifiedTokens.put(token, verified);
+        return verified;
+    }
+
     /**
      * Извлечение имени пользователя из JWT токена.
      *
@@ -36,7 +100,7 @@ public class JWTUtils {
      * @return имя пользователя
      */
     public String extractUsername(String token) {
-        return getClaimsFromToken(token).getSubject();
+        return verify(token).subject();
     }
 
     /**
@@ -47,18 +111,8 @@ public class JWTUtils {
      * @return true если токен действителен, иначе false
      */
     public boolean validateToken(String token, org.springframework.security.core.userdetails.UserDetails userDetails) {
-        String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    /**
-     * Проверка срока действия токена.
-     *
-     * @param token JWT токен
-     * @return true если токен истек, иначе false
-     */
-    private boolean isTokenExpired(String token) {
-        return getClaimsFromToken(token).getExpiration().before(new Date());
+        VerifiedToken verified = verify(token);
+        return verified.subject().equals(userDetails.getUsername()) && !verified.isExpired();
     }
 
     /**
@@ -68,10 +122,6 @@ public class JWTUtils {
      * @return Claims объект, содержащий данные токена
      */
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 }
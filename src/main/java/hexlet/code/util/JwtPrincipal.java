@@ -0,0 +1,22 @@
+package hexlet.code.util;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Пользователь, аутентифицированный только по подписанным claims токена, без обращения к БД.
+ *
+ * @param id    идентификатор пользователя
+ * @param email email пользователя
+ */
+public record JwtPrincipal(Long id, String email) implements AuthenticatedPrincipal {
+
+    /**
+     * Возвращает имя пользователя, которое Spring Security использует как {@code Authentication#getName()}.
+     *
+     * @return email пользователя
+     */
+    @Override
+    public String getName() {
+        return email;
+    }
+}
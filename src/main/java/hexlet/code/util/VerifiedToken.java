@@ -0,0 +1,50 @@
+package hexlet.code.util;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Результат проверки JWT токена: подпись проверена, данные можно использовать без повторного разбора.
+ *
+ * @param subject     имя пользователя (email)
+ * @param userId      идентификатор пользователя или null, если токен выпущен без claims пользователя
+ * @param expiration  момент истечения срока действия
+ * @param authorities роли пользователя из токена (пустой список, если токен их не содержит)
+ */
+public record VerifiedToken(String subject, Long userId, Instant expiration, List<String> authorities) {
+
+    /**
+     * Собирает результат из проверенных claims.
+     *
+     * @param claims claims токена с проверенной подписью
+     * @return результат проверки
+     */
+    static VerifiedToken from(Claims claims) {
+        List<?> roles = claims.get(JWTUtils.ROLES_CLAIM, List.class);
+        List<String> authorities = roles == null
+                ? List.of()
+                : roles.stream().map(String::valueOf).toList();
+        return new VerifiedToken(claims.getSubject(), claims.get(JWTUtils.USER_ID_CLAIM, Long.class),
+                claims.getExpiration().toInstant(), authorities);
+    }
+
+    /**
+     * Проверяет, содержит ли токен id и роли пользователя, достаточные для авторизации без БД.
+     *
+     * @return true если токен выпущен в режиме stateless-claims
+     */
+    public boolean hasUserClaims() {
+        return userId != null;
+    }
+
+    /**
+     * Проверяет, истёк ли срок действия токена.
+     *
+     * @return true если токен истёк
+     */
+    public boolean isExpired() {
+        return expiration.isBefore(Instant.now());
+    }
+}
@@ -0,0 +1,36 @@
+package hexlet.code.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class AsyncConfigTest {
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testDecoratorPropagatesSecurityContextToVirtualThread() throws Exception {
+        Authentication authentication = new TestingAuthenticationToken("user@example.com", null, "ROLE_USER");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        TaskDecorator decorator = new AsyncConfig().securityContextTaskDecorator();
+
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        Runnable task = decorator.decorate(() -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+        SecurityContextHolder.clearContext();
+        Thread.ofVirtual().start(task).join();
+
+        assertSame(authentication, seen.get());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
@@ -0,0 +1,33 @@
+package hexlet.code.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Условные GET-запросы, отключённые для развёртывания с несколькими экземплярами приложения.
+ */
+@SpringBootTest(properties = "app.conditional-get.enabled=false")
+@AutoConfigureMockMvc
+public class ConditionalGetDisabledTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testCollectionsAreServedWithoutETag() throws Exception {
+        // Ответ без ETag: клиент не сможет получить 304 по версии, устаревшей на другом экземпляре
+        mockMvc.perform(get("/api/labels")
+                        .with(user("reader"))
+                        .header("If-None-Match", "*"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+}
@@ -0,0 +1,86 @@
+package hexlet.code.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionExecution;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class QueryBudgetGuardTest {
+
+    private static final String SELECT_LABEL = "select l.id, l.name from labels l where l.id=?";
+
+    @Test
+    public void testNestedScopesCountSameQueries() {
+        QueryBudgetGuard guard = new QueryBudgetGuard(0, 0, 10, false);
+        QueryBudgetGuard.Scope outer = guard.open("outer", 0);
+        execute(guard, "select 1");
+        QueryBudgetGuard.Scope inner = guard.open("inner", 0);
+        execute(guard, "select 2");
+        guard.close(inner);
+        execute(guard, "select 3");
+        guard.close(outer);
+
+        assertEquals(3, outer.getCount());
+        assertEquals(1, inner.getCount());
+        execute(guard, "select 4");
+        assertEquals(3, outer.getCount());
+    }
+
+    @Test
+    public void testRepeatedQueryIsReportedAsNPlusOne() {
+        QueryBudgetGuard guard = new QueryBudgetGuard(0, 0, 3, false);
+        QueryBudgetGuard.Scope scope = guard.open("GET /api/tasks", 0);
+        execute(guard, "select t.id from tasks t");
+        for (int i = 0; i < 3; i++) {
+            execute(guard, SELECT_LABEL);
+        }
+        guard.close(scope);
+
+        String description = scope.describe();
+        assertTrue(description.startsWith("GET /api/tasks: 4 queries"));
+        assertTrue(description.contains("3x [N+1] " + SELECT_LABEL));
+        assertTrue(description.contains("at hexlet.code.config.QueryBudgetGuardTest"), description);
+        assertFalse(description.contains("1x [N+1]"));
+    }
+
+    @Test
+    public void testExceededTransactionBudgetFailsBeforeCommitWhenConfigured() {
+        QueryBudgetGuard guard = new QueryBudgetGuard(0, 2, 10, true);
+        TransactionExecution transaction = mock(TransactionExecution.class);
+        guard.afterBegin(transaction, null);
+        for (int i = 0; i < 3; i++) {
+            execute(guard, SELECT_LABEL);
+        }
+
+        QueryBudgetExceededException exception =
+                assertThrows(QueryBudgetExceededException.class, () -> guard.beforeCommit(transaction));
+        assertTrue(exception.getMessage().contains("3 queries (budget 2)"));
+        // Откат после прерванной фиксации только закрывает область
+        assertDoesNotThrow(() -> guard.afterRollback(transaction, null));
+    }
+
+    @Test
+    public void testClosingExceededScopeOnlyLogs() {
+        QueryBudgetGuard guard = new QueryBudgetGuard(2, 0, 10, true);
+        QueryBudgetGuard.Scope scope = guard.openRequest("GET /api/labels");
+        for (int i = 0; i < 3; i++) {
+            execute(guard, SELECT_LABEL);
+        }
+
+        assertTrue(scope.isOverBudget());
+        assertDoesNotThrow(() -> guard.close(scope));
+    }
+
+    private static void execute(QueryBudgetGuard guard, String sql) {
+        guard.afterQuery(new ExecutionInfo(), List.of(new QueryInfo(sql)));
+    }
+}
@@ -0,0 +1,159 @@
+package hexlet.code.config;
+
+import hexlet.code.service.CollectionVersions;
+import hexlet.code.service.CollectionsChangedEvent;
+import hexlet.code.service.VersionedCollection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Два экземпляра H2 в памяти играют роли основного сервера и реплики; в каждом таблица node
+ * с именем сервера показывает, куда ушёл запрос.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private static final String WHERE = "SELECT name FROM node ORDER BY name";
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReplicaSet replicaSet;
+    private JdbcTemplate jdbc;
+    private CollectionVersions collectionVersions;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    public void setUp() {
+        DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1", "sa", "");
+        DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1", "sa", "");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        primaryJdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        primaryJdbc.update("INSERT INTO node VALUES ('primary')");
+        replicaJdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        replicaJdbc.update("INSERT INTO node VALUES ('replica')");
+        replicaJdbc.execute("CREATE TABLE replication_lag (seconds DOUBLE)");
+        replicaJdbc.update("INSERT INTO replication_lag VALUES (0)");
+
+        replicaSet = new ReplicaSet(primary, List.of(new ReplicaSet.Replica("replica-1", replica)),
+                "SELECT seconds FROM replication_lag");
+        replicaSet.checkLag();
+        RecentWriters recentWriters = new RecentWriters(Duration.ofMinutes(1), 100);
+        collectionVersions = new CollectionVersions(
+                event -> recentWriters.onCollectionsChanged((CollectionsChangedEvent) event));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaSet,
+                Duration.ofSeconds(2), Duration.ofSeconds(1), recentWriters, collectionVersions));
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        replicaSet.close();
+        primaryJdbc.execute("DROP ALL OBJECTS");
+        replicaJdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    public void testReadOnlyTransactionsGoToReplica() {
+        assertEquals("replica", readOnly.execute(status -> where()));
+        assertEquals("primary", readWrite.execute(status -> where()));
+        assertEquals("primary", where());
+    }
+
+    @Test
+    public void testLaggingOrUnavailableReplicaFallsBackToPrimary() {
+        replicaJdbc.update("UPDATE replication_lag SET seconds = 10");
+        replicaSet.checkLag();
+        assertEquals("primary", readOnly.execute(status -> where()));
+
+        replicaJdbc.update("UPDATE replication_lag SET seconds = 0.5");
+        replicaSet.checkLag();
+        assertEquals("replica", readOnly.execute(status -> where()));
+
+        replicaJdbc.execute("DROP TABLE replication_lag");
+        replicaSet.checkLag();
+        assertNull(replicaSet.getReplicas().get(0).getLag());
+        assertEquals("primary", readOnly.execute(status -> where()));
+    }
+
+    @Test
+    public void testWriterReadsOwnWritesFromPrimary() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("writer@example.com", null, "ROLE_USER"));
+        assertEquals("replica", readOnly.execute(status -> where()));
+
+        // Транзакция без записи не делает пользователя писавшим
+        assertEquals("primary", readWrite.execute(status -> where()));
+        assertEquals("replica", readOnly.execute(status -> where()));
+
+        readWrite.executeWithoutResult(status -> {
+            jdbc.update("INSERT INTO node VALUES ('written')");
+            collectionVersions.markChanged(VersionedCollection.TASKS);
+        });
+        assertEquals(2, primaryJdbc.queryForObject("SELECT COUNT(*) FROM node", Integer.class));
+        assertEquals("primary", readOnly.execute(status -> where()));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("reader@example.com", null, "ROLE_USER"));
+        assertEquals("replica", readOnly.execute(status -> where()));
+    }
+
+    @Test
+    public void testRecentlyChangedCollectionIsReadFromPrimary() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        assertEquals("replica", readOnly.execute(status -> where()));
+
+        // Версии только что созданы: коллекции считаются изменёнными при запуске, реплика могла отстать
+        request.setAttribute(ConditionalGetInterceptor.VERSIONED_COLLECTION_ATTRIBUTE, VersionedCollection.TASKS);
+        assertEquals("primary", readOnly.execute(status -> where()));
+    }
+
+    @Test
+    public void testReadFromPrimaryKeepsReadOnlyTransaction() {
+        assertEquals("primary", ReplicaRoutingDataSource.readFromPrimary(() -> readOnly.execute(status -> {
+            assertTrue(status.isReadOnly());
+            return where();
+        })));
+
+        // Соединение с реплики уже получено: чтение внутри readFromPrimary идёт с него, и это видно
+        readOnly.executeWithoutResult(status -> {
+            assertFalse(ReplicaRoutingDataSource.isCurrentTransactionOnReplica());
+            assertEquals("replica", where());
+            assertTrue(ReplicaRoutingDataSource.isCurrentTransactionOnReplica());
+            assertEquals("replica", ReplicaRoutingDataSource.readFromPrimary(this::where));
+        });
+        assertFalse(ReplicaRoutingDataSource.isCurrentTransactionOnReplica());
+    }
+
+    private String where() {
+        return jdbc.queryForList(WHERE, String.class).get(0);
+    }
+}
@@ -0,0 +1,210 @@
+package hexlet.code.config;
+
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.service.TaskIndexMaintainer;
+import hexlet.code.service.TaskStatusRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.Cookie;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Маршрутизация чтений через JpaTransactionManager и Hibernate. Два экземпляра H2 в памяти играют роли
+ * основного сервера и реплики; реплика получает изменения только при явном вызове {@link #replicate()},
+ * поэтому по ответу видно, с какого сервера он прочитан.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:jpa-routing-primary;DB_CLOSE_DELAY=-1",
+    "app.datasource.replica-urls=jdbc:h2:mem:jpa-routing-replica;DB_CLOSE_DELAY=-1",
+    "app.datasource.replica-lag-query=SELECT 0",
+    "app.datasource.max-replica-lag=1s",
+    "app.datasource.lag-check-interval=1s"
+})
+@AutoConfigureMockMvc
+public class ReplicaRoutingJpaTest {
+
+    // max-replica-lag + lag-check-interval: изменения старше этого уже есть на реплике
+    private static final long REPLICATION_WINDOW_MILLIS = 2000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Autowired
+    private TaskIndexMaintainer taskIndexMaintainer;
+
+    @Autowired
+    private TaskStatusRegistry taskStatusRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private TaskStatus taskStatus;
+
+    @BeforeEach
+    public void setUp() {
+        primaryJdbc = new JdbcTemplate(replicaSet.getPrimary());
+        replicaJdbc = new JdbcTemplate(replicaSet.getReplicas().get(0).getDataSource());
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        taskStatus = taskStatusRepository.save(new TaskStatus("Routing", "routing"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        taskRepository.deleteAll();
+        taskStatusRepository.delete(taskStatus);
+    }
+
+    @Test
+    public void testReadOnlyJpaTransactionReadsFromReplica() {
+        assertInstanceOf(JpaTransactionManager.class, transactionManager);
+        replicate();
+        Task task = saveTask("Not yet replicated");
+
+        // Признак readOnly выставляется уже после начала транзакции Hibernate, соединение берётся лениво
+        assertFalse(readOnly.execute(status -> taskRepository.existsById(task.getId())));
+        assertTrue(readWrite.execute(status -> taskRepository.existsById(task.getId())));
+    }
+
+    @Test
+    public void testLastWriteCookieRoutesReadsToPrimary() {
+        replicate();
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest(), writeResponse));
+        Task task = readWrite.execute(status -> saveTask("Written by anonymous client"));
+        Cookie lastWrite = writeResponse.getCookie(RecentWriters.COOKIE_NAME);
+        assertNotNull(lastWrite);
+
+        // Анонимный клиент не попадает в список пользователей экземпляра: признак записи есть только в cookie,
+        // как при следующем запросе на другой экземпляр приложения
+        MockHttpServletRequest withCookie = new MockHttpServletRequest();
+        withCookie.setCookies(lastWrite);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(withCookie));
+        assertTrue(readOnly.execute(status -> taskRepository.existsById(task.getId())));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertFalse(readOnly.execute(status -> taskRepository.existsById(task.getId())));
+    }
+
+    @Test
+    public void testRegistryReloadIsNotRecordedAsWrite() throws Exception {
+        replicate();
+        awaitIndexesAvailable();
+        taskStatusRegistry.invalidate();
+
+        // Фильтр по статусу загружает реестр на этом запросе, но чтение не делает пользователя писавшим
+        mockMvc.perform(get("/api/tasks")
+                        .with(user("reader"))
+                        .param("status", "routing"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist(RecentWriters.COOKIE_NAME));
+    }
+
+    @Test
+    public void testIndexResolvedPageIsReadFromPrimary() throws Exception {
+        Task replicated = saveTask("Replicated task");
+        replicate();
+        Task recent = saveTask("Recent task");
+        awaitIndexesAvailable();
+
+        // Индекс видит обе задачи; страница по их ID с реплики потеряла бы вторую задачу и курсор
+        mockMvc.perform(get("/api/tasks")
+                        .with(user("reader"))
+                        .param("status", "routing"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$[*].id").value(contains(replicated.getId().intValue(),
+                        recent.getId().intValue())));
+    }
+
+    @Test
+    public void testVersionedResponseIsReadFromPrimaryUntilReplicasCatchUp() throws Exception {
+        Task task = saveTask("Original");
+        replicate();
+        task.setName("Renamed");
+        taskRepository.save(task);
+
+        // Ответ с реплики получил бы ETag новой версии, но старое название
+        mockMvc.perform(get("/api/tasks/" + task.getId())
+                        .with(user("reader")))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.title").value("Renamed"));
+
+        // Реплика в тесте не получает изменений сама: прочитанное с неё название показывает,
+        // что после окна репликации чтения снова идут на реплику
+        Thread.sleep(REPLICATION_WINDOW_MILLIS + 500);
+        mockMvc.perform(get("/api/tasks/" + task.getId())
+                        .with(user("reader")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Original"));
+    }
+
+    private Task saveTask(String name) {
+        Task task = new Task();
+        task.setName(name);
+        task.setTaskStatus(taskStatus);
+        return taskRepository.save(task);
+    }
+
+    // Копирует схему и данные основного сервера на реплику
+    private void replicate() {
+        List<String> script = primaryJdbc.queryForList("SCRIPT", String.class);
+        replicaJdbc.execute("DROP ALL OBJECTS");
+        script.forEach(replicaJdbc::execute);
+    }
+
+    private void awaitIndexesAvailable() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!taskIndexMaintainer.isAvailable()) {
+            assertTrue(System.nanoTime() < deadline, "Task indexes were not updated in time");
+            Thread.sleep(10);
+        }
+    }
+}
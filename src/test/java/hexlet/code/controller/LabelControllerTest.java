@@ -25,12 +25,14 @@ import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -121,6 +123,54 @@ public class LabelControllerTest {
                 .andExpect(jsonPath("$[0].name").value("Bug"));
     }
 
+    @Test
+    public void testGetAllLabelsWithTaskCounts() throws Exception {
+        TaskStatus taskStatus = taskStatusRepository.save(new TaskStatus("Draft", "draft"));
+        Label unused = labelRepository.save(new Label("Unused"));
+
+        for (int i = 0; i < 2; i++) {
+            Task task = new Task();
+            task.setName("Task " + i);
+            task.setTaskStatus(taskStatus);
+            task.getLabels().add(label);
+            taskRepository.save(task);
+        }
+
+        mockMvc.perform(get("/api/labels")
+                        .header("Authorization", jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(label.getId()))
+                .andExpect(jsonPath("$[0].taskCount").value(2))
+                .andExpect(jsonPath("$[1].id").value(unused.getId()))
+                .andExpect(jsonPath("$[1].taskCount").value(0));
+    }
+
+    @Test
+    public void testGetAllLabelsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/labels")
+                        .header("Authorization", jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/labels")
+                        .header("Authorization", jwtToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        labelRepository.save(new Label("Feature"));
+
+        mockMvc.perform(get("/api/labels")
+                        .header("Authorization", jwtToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
     @Test
     public void testCreateLabel() throws Exception {
         LabelDTO newLabelDTO = new LabelDTO(null, "Feature", null);
@@ -193,5 +243,4 @@ public class LabelControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string(containsString("Нельзя удалить метку, она связана с задачами.")));
     }
-
 }
@@ -0,0 +1,301 @@
+package hexlet.code.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.config.QueryBudgetGuard;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.repository.UserRepository;
+import hexlet.code.service.TaskIndexMaintainer;
+import hexlet.code.utils.QueryCounts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Запросы списка, разрезов и поиска задач, на которые отвечают индексы в памяти процесса,
+ * и перепроверка списка задач по ETag. Тесты не транзакционные: индексы и версии коллекций видят
+ * только зафиксированные изменения, поэтому данные фиксируются перед запросами и удаляются
+ * после каждого теста.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TaskControllerIndexTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private QueryBudgetGuard queryBudget;
+
+    @Autowired
+    private TaskIndexMaintainer taskIndexMaintainer;
+
+    private String jwtToken;
+    private User user;
+    private TaskStatus todo;
+    private TaskStatus done;
+    private Label bug;
+    private Label feature;
+
+    /**
+     * Очищает репозитории, создаёт пользователя, статусы и метки и получает JWT токен.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        cleanUp();
+
+        user = new User();
+        user.setEmail("indexuser@example.com");
+        user.setPassword(passwordEncoder.encode("password"));
+        userRepository.save(user);
+
+        todo = taskStatusRepository.save(new TaskStatus("To Do", "todo"));
+        done = taskStatusRepository.save(new TaskStatus("Done", "done"));
+        bug = labelRepository.save(new Label("bug"));
+        feature = labelRepository.save(new Label("feature"));
+
+        Map<String, String> loginData = new HashMap<>();
+        loginData.put("username", "indexuser@example.com");
+        loginData.put("password", "password");
+
+        MvcResult result = mockMvc.perform(post("/api/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginData)))
+                .andExpect(status().isOk())
+                .andReturn();
+        jwtToken = "Bearer " + result.getResponse().getContentAsString().trim();
+    }
+
+    /**
+     * Удаляет зафиксированные тестом данные.
+     */
+    @AfterEach
+    public void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    public void testGetTasksQueryCountDoesNotDependOnTaskCount() throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(task("Budget Task " + i, null, todo, user, bug));
+        }
+        taskRepository.saveAll(tasks);
+        awaitIndexesAvailable();
+        getTasksWarmUp();
+
+        // Страница задач и их метки; количество берётся из индекса, пользователь - из PrincipalCache
+        QueryCounts.assertMaxQueries(queryBudget, 2, () -> mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1000"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(100))));
+    }
+
+    @Test
+    public void testFilterTasksByIndexes() throws Exception {
+        Task login = taskRepository.save(task("Fix login page", null, todo, user, bug));
+        Task oauth = taskRepository.save(task("Login via OAuth", null, done, user, bug, feature));
+        Task docs = taskRepository.save(task("Write docs", null, todo, null, feature));
+        awaitIndexesAvailable();
+        getTasksWarmUp();
+
+        // Задачи страницы и их метки, без подсчёта в БД
+        QueryCounts.assertMaxQueries(queryBudget, 2, () -> mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("titleCont", "LOGIN")
+                        .param("labelId", bug.getId() + "," + feature.getId())
+                        .param("labelMatch", "all"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$[*].id").value(contains(oauth.getId().intValue()))));
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("status", "todo")
+                        .param("labelId", bug.getId() + "," + feature.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$[*].id").value(contains(login.getId().intValue(), docs.getId().intValue())));
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("assigneeId", String.valueOf(user.getId()))
+                        .param("status", "todo"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$[*].id").value(contains(login.getId().intValue())));
+    }
+
+    @Test
+    public void testCountFacetsByIndexes() throws Exception {
+        taskRepository.save(task("Fix login page", null, todo, user, bug));
+        taskRepository.save(task("Login via OAuth", null, done, user, bug, feature));
+        taskRepository.save(task("Write docs", null, todo, null, feature));
+        awaitIndexesAvailable();
+        getTasksWarmUp();
+
+        // Разрезы считаются по битовым множествам без обращения к БД
+        QueryCounts.assertMaxQueries(queryBudget, 0, () -> mockMvc.perform(get("/api/tasks/facets")
+                        .header("Authorization", jwtToken)
+                        .param("labelId", String.valueOf(bug.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.statuses.todo").value(1))
+                .andExpect(jsonPath("$.statuses.done").value(1))
+                .andExpect(jsonPath("$.labels['" + bug.getId() + "']").value(2))
+                .andExpect(jsonPath("$.labels['" + feature.getId() + "']").value(1))
+                .andExpect(jsonPath("$.assignee_id['" + user.getId() + "']").value(2)));
+    }
+
+    @Test
+    public void testSearchTasksRanksByIndex() throws Exception {
+        Task inDescription = taskRepository.save(task("Write docs", "Document the OAuth flow", todo, null));
+        Task inName = taskRepository.save(task("Login via OAuth", null, done, null));
+        taskRepository.save(task("Fix login page", null, todo, null));
+        awaitIndexesAvailable();
+
+        // Совпадение в названии весит больше, чем в описании; запрос к БД вернул бы задачи по возрастанию ID
+        mockMvc.perform(get("/api/tasks/search")
+                        .header("Authorization", jwtToken)
+                        .param("q", "oauth"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(inName.getId().intValue(),
+                        inDescription.getId().intValue())));
+    }
+
+    @Test
+    public void testTaskWriteChangesTasksAndLabelsETags() throws Exception {
+        String tasksETag = getETag("/api/tasks");
+        String labelsETag = getETag("/api/labels");
+
+        // Количество задач у метки входит в ответ /api/labels, поэтому запись задачи меняет обе версии
+        taskRepository.save(task("Task with label", null, todo, null, bug));
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .header("If-None-Match", tasksETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(tasksETag)))
+                .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(get("/api/labels")
+                        .header("Authorization", jwtToken)
+                        .header("If-None-Match", labelsETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(labelsETag)))
+                .andExpect(jsonPath("$[?(@.name == 'bug')].taskCount").value(contains(1)));
+    }
+
+    @Test
+    public void testTaskStatusUpdateChangesTasksETag() throws Exception {
+        taskRepository.save(task("Task", null, todo, null));
+        String tasksETag = getETag("/api/tasks");
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .header("If-None-Match", tasksETag))
+                .andExpect(status().isNotModified());
+
+        // Slug статуса входит в ответ /api/tasks
+        todo.setSlug("renamed");
+        taskStatusRepository.save(todo);
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .header("If-None-Match", tasksETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(tasksETag)))
+                .andExpect(jsonPath("$[0].status").value("renamed"));
+    }
+
+    private void cleanUp() {
+        taskRepository.deleteAll();
+        labelRepository.deleteAll();
+        taskStatusRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // Загружает пользователя в PrincipalCache и статусы в TaskStatusRegistry, чтобы измерять только сам запрос
+    private void getTasksWarmUp() throws Exception {
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("status", "todo")
+                        .param("limit", "1"))
+                .andExpect(status().isOk());
+    }
+
+    private String getETag(String path) throws Exception {
+        return mockMvc.perform(get(path)
+                        .header("Authorization", jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    // Индексы перечитывают зафиксированные задачи в фоновом потоке и до этого сообщают о недоступности
+    private void awaitIndexesAvailable() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!taskIndexMaintainer.isAvailable()) {
+            assertTrue(System.nanoTime() < deadline, "Task indexes were not updated in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static Task task(String name, String description, TaskStatus taskStatus, User assignee,
+                             Label... labels) {
+        Task task = new Task();
+        task.setName(name);
+        task.setDescription(description);
+        task.setTaskStatus(taskStatus);
+        task.setAssignee(assignee);
+        task.getLabels().addAll(List.of(labels));
+        return task;
+    }
+}
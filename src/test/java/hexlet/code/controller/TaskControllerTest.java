@@ -1,8 +1,11 @@
 package hexlet.code.controller;
 
+import hexlet.code.dto.TaskBatchDTO;
+import hexlet.code.model.Label;
 import hexlet.code.model.Task;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.model.User;
+import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.repository.UserRepository;
@@ -18,12 +21,19 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -43,6 +53,9 @@ public class TaskControllerTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LabelRepository labelRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -118,4 +131,108 @@ public class TaskControllerTest {
         assertEquals("in_progress", responseTask.get("status"));
         assertEquals(assignee.getId(), Long.valueOf((Integer) responseTask.get("assignee_id")));
     }
+
+    @Test
+    public void testGetTasksKeysetPagination() throws Exception {
+        TaskStatus status = new TaskStatus("Draft", "draft");
+        taskStatusRepository.save(status);
+
+        for (int i = 1; i <= 3; i++) {
+            Task task = new Task();
+            task.setName("Task " + i);
+            task.setTaskStatus(status);
+            taskRepository.save(task);
+        }
+        taskRepository.flush();
+
+        MvcResult firstPage = mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].title").value("Task 1"))
+                .andReturn();
+
+        String cursor = firstPage.getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("after", cursor)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title").value("Task 3"));
+    }
+
+    @Test
+    public void testCreateTasksBatch() throws Exception {
+        TaskStatus status = new TaskStatus("Draft", "draft");
+        taskStatusRepository.save(status);
+        Label label = labelRepository.save(new Label("batch-label"));
+
+        List<Map<String, Object>> batch = List.of(
+                Map.of("title", "Batch 1", "status", "draft", "taskLabelIds", List.of(label.getId())),
+                Map.of("title", "Batch 2", "content", "Second"));
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .header("Authorization", jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].title").value("Batch 1"))
+                .andExpect(jsonPath("$[0].status").value("draft"))
+                .andExpect(jsonPath("$[0].taskLabelIds[0]").value(label.getId()))
+                .andExpect(jsonPath("$[1].content").value("Second"));
+
+        assertEquals(2, taskRepository.count());
+    }
+
+    @Test
+    public void testCreateTasksBatchReportsMissingLabels() throws Exception {
+        List<Map<String, Object>> batch = List.of(
+                Map.of("title", "Batch 1", "taskLabelIds", List.of(-1L, -2L)));
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .header("Authorization", jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Label not found: -2, -1"));
+    }
+
+    @Test
+    public void testCreateTasksBatchValidatesEachTask() throws Exception {
+        List<Map<String, Object>> batch = List.of(
+                Map.of("title", "Batch 1"),
+                Map.of("content", "No title"));
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .header("Authorization", jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Task 1: Title is required"));
+
+        assertEquals(0, taskRepository.count());
+    }
+
+    @Test
+    public void testCreateTasksBatchRejectsOversizedBatch() throws Exception {
+        List<Map<String, Object>> batch = new ArrayList<>();
+        for (int i = 0; i <= TaskBatchDTO.MAX_SIZE; i++) {
+            batch.add(Map.of("title", "Batch " + i));
+        }
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .header("Authorization", jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("Batch size must not exceed " + TaskBatchDTO.MAX_SIZE)));
+
+        assertEquals(0, taskRepository.count());
+    }
 }
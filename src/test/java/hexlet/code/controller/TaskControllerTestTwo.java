@@ -1,9 +1,11 @@
 package hexlet.code.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.model.Label;
 import hexlet.code.model.Task;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.model.User;
+import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.repository.UserRepository;
@@ -21,10 +23,15 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,6 +52,9 @@ public class TaskControllerTestTwo {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LabelRepository labelRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -139,4 +149,130 @@ public class TaskControllerTestTwo {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)));
     }
+
+    @Test
+    public void testFilterByTitleMatchesWildcardsLiterally() throws Exception {
+        Task discount = new Task();
+        discount.setName("Discount 50% OFF");
+        discount.setTaskStatus(taskStatus);
+        taskRepository.saveAndFlush(discount);
+        Task items = new Task();
+        items.setName("Discount 500 items");
+        items.setTaskStatus(taskStatus);
+        taskRepository.saveAndFlush(items);
+
+        // Транзакция теста изменила задачи, поэтому фильтр выполняется в БД; % и _ ищутся буквально,
+        // как в триграммном индексе
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("titleCont", "50% off"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(discount.getId().intValue())));
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("titleCont", "discount_"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void testFilterByLabel() throws Exception {
+        Label bug = labelRepository.save(new Label("filter-bug"));
+        Label feature = labelRepository.save(new Label("filter-feature"));
+        task.getLabels().add(bug);
+        taskRepository.saveAndFlush(task);
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("labelId", bug.getId().toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].taskLabelIds[0]").value(bug.getId()));
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("labelId", feature.getId().toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "0"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void testFilterByMultipleLabels() throws Exception {
+        Label bug = labelRepository.save(new Label("multi-bug"));
+        Label feature = labelRepository.save(new Label("multi-feature"));
+        task.getLabels().add(bug);
+        taskRepository.saveAndFlush(task);
+        String labelIds = bug.getId() + "," + feature.getId();
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("labelId", labelIds)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"));
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("labelId", labelIds)
+                        .param("labelMatch", "all")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "0"));
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("labelId", labelIds)
+                        .param("labelMatch", "some")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testTaskFacets() throws Exception {
+        Label bug = labelRepository.save(new Label("facet-bug"));
+        task.getLabels().add(bug);
+        taskRepository.saveAndFlush(task);
+
+        mockMvc.perform(get("/api/tasks/facets")
+                        .header("Authorization", jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.statuses.in_progress").value(1))
+                .andExpect(jsonPath("$.labels['" + bug.getId() + "']").value(1))
+                .andExpect(jsonPath("$.assignee_id['" + user.getId() + "']").value(1));
+
+        mockMvc.perform(get("/api/tasks/facets")
+                        .header("Authorization", jwtToken)
+                        .param("titleCont", "missing")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0))
+                .andExpect(jsonPath("$.statuses").isEmpty());
+    }
+
+    @Test
+    public void testFilterExcludesOtherStatuses() throws Exception {
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", jwtToken)
+                        .param("status", "published")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void testDeleteTaskStatusInUse() throws Exception {
+        mockMvc.perform(delete("/api/task_statuses/" + taskStatus.getId())
+                        .header("Authorization", jwtToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Cannot delete task status: it is assigned to tasks"));
+
+        assertTrue(taskStatusRepository.existsById(taskStatus.getId()));
+    }
 }
@@ -0,0 +1,55 @@
+package hexlet.code.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(username = "admin", authorities = "ADMIN")
+    public void testPrometheusExposesRequestAndQueryMetrics() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/welcome"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(allOf(
+                        containsString("http_server_requests_seconds_bucket"),
+                        containsString("handler=\"WelcomeController.welcome\""),
+                        containsString("http_server_requests_queries"),
+                        containsString("jdbc_queries_total"),
+                        containsString("principal_cache_requests_total{result=\"hit\""),
+                        containsString("hikaricp_connections_acquire_seconds"))));
+    }
+
+    @Test
+    public void testPrometheusRequiresAuthentication() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().is4xxClientError());
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/health"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "user", authorities = "USER")
+    public void testPrometheusRequiresAdmin() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+    }
+}
@@ -0,0 +1,44 @@
+package hexlet.code.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class StaticResourcesTest {
+
+    private static final String ASSET = "/assets/index-6b0de6db.js";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testHashedAssetIsImmutableAndPrecompressed() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(ASSET)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, containsString("Accept-Encoding")))
+                .andExpect(MockMvcResultMatchers.header()
+                        .string(HttpHeaders.CACHE_CONTROL, containsString("immutable")));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(ASSET))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testIndexIsRevalidated() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/index.html"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+}
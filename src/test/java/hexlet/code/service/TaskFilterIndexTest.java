@@ -0,0 +1,60 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TaskFilterIndexTest {
+
+    @Test
+    public void testFilterCombinesStatusAssigneeAndLabels() {
+        TaskFilterIndex index = new TaskFilterIndex();
+        index.update(List.of(), List.of(
+                new TaskDocument(1L, "One", null, 10L, 100L, List.of(1L, 2L)),
+                new TaskDocument(2L, "Two", null, 10L, 200L, List.of(1L)),
+                new TaskDocument(3L, "Three", null, 20L, 100L, List.of(2L, 3L)),
+                new TaskDocument(4L, "Four", null, 20L, null, List.of())));
+
+        assertArrayEquals(new int[] {1, 2, 3, 4}, index.filter(null, null, null, false).toArray());
+        assertArrayEquals(new int[] {1, 2}, index.filter(10L, null, null, false).toArray());
+        assertArrayEquals(new int[] {1, 3}, index.filter(null, 100L, null, false).toArray());
+        assertArrayEquals(new int[] {1, 2, 3}, index.filter(null, null, List.of(1L, 3L), false).toArray());
+        assertArrayEquals(new int[] {1}, index.filter(null, null, List.of(1L, 2L), true).toArray());
+        assertArrayEquals(new int[] {3}, index.filter(20L, 100L, List.of(2L), false).toArray());
+        assertArrayEquals(new int[] {}, index.filter(null, null, List.of(99L), false).toArray());
+    }
+
+    @Test
+    public void testUpdateMovesTaskBetweenBitmaps() {
+        TaskFilterIndex index = new TaskFilterIndex();
+        index.update(List.of(), List.of(new TaskDocument(1L, "One", null, 10L, 100L, List.of(1L))));
+
+        index.update(List.of(1L), List.of(new TaskDocument(1L, "One", null, 20L, null, List.of(2L))));
+        assertArrayEquals(new int[] {}, index.filter(10L, null, null, false).toArray());
+        assertArrayEquals(new int[] {}, index.filter(null, 100L, null, false).toArray());
+        assertArrayEquals(new int[] {1}, index.filter(20L, null, List.of(2L), true).toArray());
+
+        index.update(List.of(1L), List.of());
+        assertEquals(0, index.size());
+        assertArrayEquals(new int[] {}, index.filter(20L, null, null, false).toArray());
+    }
+
+    @Test
+    public void testCountFacetsOverMatches() {
+        TaskFilterIndex index = new TaskFilterIndex();
+        index.update(List.of(), List.of(
+                new TaskDocument(1L, "One", null, 10L, 100L, List.of(1L, 2L)),
+                new TaskDocument(2L, "Two", null, 10L, null, List.of(1L)),
+                new TaskDocument(3L, "Three", null, 20L, 100L, List.of(3L))));
+
+        TaskFilterIndex.FacetCounts counts = index.countFacets(index.filter(null, null, List.of(1L), false));
+        assertEquals(Map.of(10L, 2L), counts.byStatus());
+        assertEquals(Map.of(100L, 1L), counts.byAssignee());
+        assertEquals(Map.of(1L, 2L, 2L, 1L), counts.byLabel());
+    }
+}
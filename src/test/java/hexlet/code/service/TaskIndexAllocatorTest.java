@@ -0,0 +1,55 @@
+package hexlet.code.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class TaskIndexAllocatorTest {
+
+    private static final int WRITERS = 64;
+    private static final int INDEXES_PER_WRITER = 500;
+
+    @Autowired
+    private TaskIndexAllocator taskIndexAllocator;
+
+    @Test
+    public void testIndexesAreUniqueUnderParallelWriters() throws Exception {
+        Set<Integer> indexes = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < INDEXES_PER_WRITER; j++) {
+                        indexes.add(taskIndexAllocator.nextIndex());
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(WRITERS * INDEXES_PER_WRITER, indexes.size());
+    }
+}
@@ -0,0 +1,92 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskDocument;
+import hexlet.code.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class TaskIndexMaintainerTest {
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final TaskFilterIndex taskFilterIndex = new TaskFilterIndex();
+    private TaskIndexMaintainer maintainer;
+
+    @AfterEach
+    public void tearDown() {
+        if (maintainer != null) {
+            maintainer.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedReloadIsRetriedWithoutNewChanges() throws InterruptedException {
+        maintainer = createMaintainer(true);
+        when(taskRepository.findDocumentsAfter(anyLong(), anyInt())).thenReturn(List.of());
+        when(taskRepository.findDocumentsByIds(anyCollection()))
+                .thenThrow(new IllegalStateException("Connection refused"))
+                .thenReturn(List.of(document(1L)));
+        maintainer.build();
+
+        maintainer.onTaskChanged(new TaskChangedEvent(Set.of(1L)));
+
+        awaitAvailable();
+        assertEquals(1, taskFilterIndex.size());
+    }
+
+    @Test
+    public void testTaskIdOutOfRangeDisablesIndexes() {
+        maintainer = createMaintainer(true);
+        when(taskRepository.findDocumentsAfter(anyLong(), anyInt()))
+                .thenReturn(List.of(document(1L), document(TaskDocumentIndex.MAX_TASK_ID + 1)));
+
+        maintainer.build();
+
+        assertFalse(maintainer.isAvailable());
+        assertEquals(0, taskFilterIndex.size());
+    }
+
+    @Test
+    public void testDisabledIndexesAreNotBuilt() {
+        maintainer = createMaintainer(false);
+
+        maintainer.build();
+        maintainer.onTaskChanged(new TaskChangedEvent(Set.of(1L)));
+
+        assertFalse(maintainer.isAvailable());
+        verifyNoInteractions(taskRepository);
+    }
+
+    private TaskIndexMaintainer createMaintainer(boolean enabled) {
+        TaskChangeTracker taskChangeTracker = new TaskChangeTracker(event -> { }, null);
+        return new TaskIndexMaintainer(List.of(taskFilterIndex), taskRepository, taskChangeTracker,
+                mock(PlatformTransactionManager.class), enabled, Duration.ofMillis(10));
+    }
+
+    private void awaitAvailable() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!maintainer.isAvailable()) {
+            assertTrue(System.nanoTime() < deadline, "Task indexes were not updated in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static TaskDocument document(long id) {
+        return new TaskDocument(id, "Task " + id, null, 1L, null, List.of());
+    }
+}
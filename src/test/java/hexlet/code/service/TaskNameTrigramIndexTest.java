@@ -0,0 +1,38 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class TaskNameTrigramIndexTest {
+
+    @Test
+    public void testFindContainingMatchesSubstringsOnly() {
+        TaskNameTrigramIndex index = new TaskNameTrigramIndex();
+        index.update(List.of(), List.of(
+                new TaskDocument(1L, "Fix login page", null, null, null, List.of()),
+                new TaskDocument(2L, "Login via OAuth", null, null, null, List.of()),
+                new TaskDocument(3L, "gin logic", null, null, null, List.of())));
+
+        assertArrayEquals(new int[] {1, 2}, index.findContaining("LOGIN").toArray());
+        // Все триграммы "login" есть в "gin logic", но не подряд
+        assertArrayEquals(new int[] {1, 2}, index.findContaining("login").toArray());
+        assertArrayEquals(new int[] {2}, index.findContaining("oA").toArray());
+        assertArrayEquals(new int[0], index.findContaining("logout").toArray());
+    }
+
+    @Test
+    public void testUpdateReplacesAndRemovesTasks() {
+        TaskNameTrigramIndex index = new TaskNameTrigramIndex();
+        index.update(List.of(), List.of(new TaskDocument(1L, "Deploy backend", null, null, null, List.of()),
+                new TaskDocument(2L, "Deploy frontend", null, null, null, List.of())));
+
+        index.update(List.of(1L, 2L), List.of(new TaskDocument(1L, "Review backend", null, null, null, List.of())));
+
+        assertArrayEquals(new int[0], index.findContaining("deploy").toArray());
+        assertArrayEquals(new int[] {1}, index.findContaining("backend").toArray());
+    }
+}
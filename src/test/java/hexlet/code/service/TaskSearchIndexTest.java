@@ -0,0 +1,81 @@
+package hexlet.code.service;
+
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class TaskSearchIndexTest {
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private TaskIndexMaintainer taskIndexMaintainer;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Test
+    public void testIndexFollowsCommittedTasks() throws InterruptedException {
+        TaskStatus status = taskStatusRepository.save(new TaskStatus("Search", "search_index_test"));
+        Task inName = saveTask(status, "Zephyrine deploy", "Rollout plan");
+        Task inDescription = saveTask(status, "Release notes", "Zephyrine deploy checklist");
+        try {
+            awaitIndexesUpdated();
+            assertEquals(List.of(inName.getId(), inDescription.getId()),
+                    taskSearchIndex.search("DEPLOY zephyrine", 10));
+            assertEquals(List.of(inDescription.getId()),
+                    taskSearchIndex.search("zephyrine checklist", 10));
+
+            inName.setName("Archived");
+            taskRepository.save(inName);
+            awaitIndexesUpdated();
+            assertEquals(List.of(inDescription.getId()), taskSearchIndex.search("zephyrine", 10));
+
+            taskRepository.delete(inDescription);
+            awaitIndexesUpdated();
+            assertEquals(List.of(), taskSearchIndex.search("zephyrine", 10));
+        } finally {
+            taskRepository.deleteAllById(List.of(inName.getId(), inDescription.getId()));
+            taskStatusRepository.delete(status);
+        }
+    }
+
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("fix", "login", "bug", "42", "ошибка"),
+                TaskSearchIndex.tokenize(" Fix login-bug #42: Ошибка!"));
+        assertEquals(List.of(), TaskSearchIndex.tokenize(null));
+    }
+
+    // Индексы перечитывают изменения в фоновом потоке и до этого сообщают о недоступности
+    private void awaitIndexesUpdated() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!taskIndexMaintainer.isAvailable()) {
+            assertTrue(System.nanoTime() < deadline, "Task indexes were not updated in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private Task saveTask(TaskStatus status, String name, String description) {
+        Task task = new Task();
+        task.setName(name);
+        task.setDescription(description);
+        task.setTaskStatus(status);
+        return taskRepository.save(task);
+    }
+}
@@ -0,0 +1,40 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskStatusUpdateDto;
+import hexlet.code.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class TaskStatusRegistryTest {
+
+    @Autowired
+    private TaskStatusService taskStatusService;
+
+    @Autowired
+    private TaskStatusRegistry taskStatusRegistry;
+
+    @Test
+    public void testRegistryFollowsCommittedWrites() {
+        TaskStatus created = taskStatusService.createTaskStatus(new TaskStatus("Registry", "registry_test"));
+        try {
+            assertEquals(created.getId(), taskStatusRegistry.findBySlug("REGISTRY_TEST").orElseThrow().getId());
+            assertEquals("registry_test", taskStatusRegistry.findById(created.getId()).orElseThrow().getSlug());
+
+            TaskStatusUpdateDto update = new TaskStatusUpdateDto();
+            update.setSlug("registry_renamed");
+            taskStatusService.partialUpdateTaskStatus(created.getId(), update);
+
+            assertTrue(taskStatusRegistry.findBySlug("registry_test").isEmpty());
+            assertEquals(created.getId(), taskStatusRegistry.findBySlug("registry_renamed").orElseThrow().getId());
+        } finally {
+            taskStatusService.deleteTaskStatus(created.getId());
+        }
+
+        assertTrue(taskStatusRegistry.findById(created.getId()).isEmpty());
+    }
+}
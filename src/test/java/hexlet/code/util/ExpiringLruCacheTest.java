@@ -0,0 +1,52 @@
+package hexlet.code.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ExpiringLruCacheTest {
+
+    @Test
+    public void testLoadsOnceAndCountsHits() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("VALUE", cache.get("value", key -> {
+                loads.incrementAndGet();
+                return key.toUpperCase();
+            }));
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(2, Duration.ofMinutes(1));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.getIfPresent("a");
+        cache.put("c", 3);
+
+        assertEquals(1, cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(3, cache.getIfPresent("c"));
+    }
+
+    @Test
+    public void testExpiresEntries() throws Exception {
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(2, Duration.ofMillis(1));
+        cache.put("a", 1);
+        Thread.sleep(5);
+
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,65 @@
+package hexlet.code.util;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JWTUtilsTest {
+
+    @Test
+    public void testVerifyReturnsSubject() {
+        JWTUtils jwtUtils = new JWTUtils();
+        String token = jwtUtils.generateToken("user@example.com");
+
+        VerifiedToken first = jwtUtils.verify(token);
+        VerifiedToken second = jwtUtils.verify(token);
+
+        assertEquals("user@example.com", first.subject());
+        assertEquals(first, second);
+        assertFalse(first.isExpired());
+    }
+
+    @Test
+    public void testVerifyReturnsUserClaims() {
+        JWTUtils jwtUtils = new JWTUtils();
+        String token = jwtUtils.generateToken("admin@example.com", 42L, List.of("ADMIN", "USER"));
+
+        VerifiedToken verified = jwtUtils.verify(token);
+
+        assertTrue(verified.hasUserClaims());
+        assertEquals(42L, verified.userId());
+        assertEquals(List.of("ADMIN", "USER"), verified.authorities());
+    }
+
+    @Test
+    public void testPlainTokenHasNoUserClaims() {
+        JWTUtils jwtUtils = new JWTUtils();
+
+        VerifiedToken verified = jwtUtils.verify(jwtUtils.generateToken("user@example.com"));
+
+        assertFalse(verified.hasUserClaims());
+        assertEquals(List.of(), verified.authorities());
+    }
+
+    @Test
+    public void testCachedSignatureCannotBeReusedWithOtherClaims() {
+        JWTUtils jwtUtils = new JWTUtils();
+        String token = jwtUtils.generateToken("user@example.com");
+        jwtUtils.verify(token);
+
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin@example.com\",\"exp\":4102444800}".getBytes(StandardCharsets.UTF_8));
+        String forged = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertThrows(JwtException.class, () -> jwtUtils.verify(forged));
+    }
+}
@@ -0,0 +1,42 @@
+package hexlet.code.utils;
+
+import hexlet.code.config.QueryBudgetGuard;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки количества обращений к БД в тестах. Учитываются обращения из потока теста,
+ * в том числе сделанные при обработке запросов MockMvc.
+ */
+public final class QueryCounts {
+
+    private QueryCounts() {
+    }
+
+    /**
+     * Выполняет действие и проверяет, что оно обратилось к БД не больше {@code maxQueries} раз.
+     * При нарушении сообщение содержит выполненные запросы и места их вызова.
+     *
+     * @param queryBudget бюджет обращений к БД из контекста приложения
+     * @param maxQueries  допустимое количество обращений
+     * @param action      проверяемое действие
+     * @param <T>         тип результата действия
+     * @return результат действия
+     * @throws Exception исключение действия
+     */
+    public static <T> T assertMaxQueries(QueryBudgetGuard queryBudget, int maxQueries, Callable<T> action)
+            throws Exception {
+        QueryBudgetGuard.Scope scope = queryBudget.open("test", 0);
+        T result;
+        try {
+            result = action.call();
+        } finally {
+            queryBudget.close(scope);
+        }
+        assertTrue(scope.getCount() <= maxQueries,
+                () -> "Expected at most " + maxQueries + " queries, but got " + scope.describe());
+        return result;
+    }
+}